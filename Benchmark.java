@@ -0,0 +1,213 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+
+/**
+ * Benchmark de ponta a ponta, determinístico: joga um conjunto fixo de
+ * partidas com sementes conhecidas usando o {@link Bot}, passando pelo
+ * caminho real do jogo: gravidade do engine, lockPiece, clearLines, os
+ * efeitos do GamePanel e o desenho completo num BufferedImage a cada
+ * quadro (qualidade travada, para comparar máquinas diferentes).
+ *
+ * Imprime um JSON com peças/s, quadros/s, percentis do tempo de quadro,
+ * bytes alocados por peça e pausas de GC. O campo checksum (linhas e
+ * pontos somados) deve ser igual entre builds; se mudar, o comportamento
+ * do jogo mudou e os números não são comparáveis.
+ *
+ * Uso: java -Djava.awt.headless=true Tetris --bench [--games N] [--pieces N]
+ *        [--size LxA] [--quality full|noglow|static|flat] [--warmup N] [--out arquivo]
+ */
+public final class Benchmark {
+    static final int FRAME_MS = Replay.FRAME_MS;
+    static final int INPUT_EVERY = 1; // quadros entre comandos do bot
+    static final long SEED = 20240601L;
+
+    private int games = 3;
+    private int maxPieces = 150;
+    private int warmupGames = 1;
+    private int width = 800, height = 800;
+    private RenderQuality.Tier quality = RenderQuality.Tier.FULL;
+
+    // Resultado de uma execução (aquecimento ou medida)
+    private long pieces, frames, lines, score;
+    private long[] frameNanos = new long[1 << 16];
+
+    // Pausas de GC vistas pelas notificações (ms); tocado só pela thread de notificação
+    private final List<Long> gcPauses = new ArrayList<>();
+
+    private void recordFrame(long nanos) {
+        if (frames == frameNanos.length) frameNanos = Arrays.copyOf(frameNanos, frameNanos.length * 2);
+        frameNanos[(int) frames] = nanos;
+    }
+
+    private void playGame(int index, BufferedImage image) {
+        GamePanel panel = new GamePanel(Theme.BLUE, PieceGenerator.create(PieceGenerator.Kind.BAG, SEED));
+        panel.setRenderQuality(quality);
+        panel.setSize(width, height);
+        panel.handleResize();
+        GameEngine engine = panel.getEngine();
+        engine.reset(PieceGenerator.create(PieceGenerator.Kind.BAG, PieceGenerator.seedFor(SEED, index)));
+        Bot bot = new Bot();
+
+        for (int frame = 0; !engine.isGameOver() && engine.getPiecesPlaced() < maxPieces; frame++) {
+            long start = System.nanoTime();
+            if (frame % INPUT_EVERY == 0) bot.playStep(engine);
+            engine.tick(FRAME_MS);
+            panel.publishFrame();
+            Graphics2D g = image.createGraphics();
+            panel.paint(g);
+            g.dispose();
+            recordFrame(System.nanoTime() - start);
+            frames++;
+        }
+        pieces += engine.getPiecesPlaced();
+        lines += engine.getTotalLines();
+        score += engine.getScore();
+    }
+
+    private void runGames(int count, int firstIndex, BufferedImage image) {
+        pieces = frames = lines = score = 0;
+        for (int i = 0; i < count; i++) playGame(firstIndex + i, image);
+    }
+
+    private void listenForGc() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof NotificationEmitter emitter)) continue;
+            NotificationListener listener = (n, handback) -> {
+                if (!"com.sun.management.gc.notification".equals(n.getType())) return;
+                CompositeData info = (CompositeData) n.getUserData();
+                CompositeData gcInfo = (CompositeData) info.get("gcInfo");
+                long duration = (Long) gcInfo.get("duration");
+                synchronized (gcPauses) {
+                    gcPauses.add(duration);
+                }
+            };
+            emitter.addNotificationListener(listener, null, null);
+        }
+    }
+
+    private static double percentile(long[] sorted, int n, double p) {
+        if (n == 0) return 0;
+        return sorted[Math.min(n - 1, (int) Math.ceil(p * n) - 1)] / 1e6;
+    }
+
+    String run() {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        // Aquecimento com sementes que não entram na medida
+        runGames(warmupGames, games, image);
+        System.gc();
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        long gcCount = 0, gcTime = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount -= gc.getCollectionCount();
+            gcTime -= gc.getCollectionTime();
+        }
+        synchronized (gcPauses) {
+            gcPauses.clear();
+        }
+        long allocBefore = threads.getThreadAllocatedBytes(tid);
+        long start = System.nanoTime();
+        runGames(games, 0, image);
+        double secs = (System.nanoTime() - start) / 1e9;
+        long alloc = threads.getThreadAllocatedBytes(tid) - allocBefore;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            gcCount += gc.getCollectionCount();
+            gcTime += gc.getCollectionTime();
+        }
+        long maxPause;
+        synchronized (gcPauses) {
+            maxPause = gcPauses.stream().mapToLong(Long::longValue).max().orElse(0);
+        }
+
+        // Peças/s só da lógica (engine + bot, sem desenho), mesmas partidas
+        long logicStart = System.nanoTime();
+        long logicPieces = 0;
+        for (int i = 0; i < games; i++) {
+            GameEngine engine = new GameEngine();
+            engine.reset(PieceGenerator.create(PieceGenerator.Kind.BAG, PieceGenerator.seedFor(SEED, i)));
+            Bot bot = new Bot();
+            for (int frame = 0; !engine.isGameOver() && engine.getPiecesPlaced() < maxPieces; frame++) {
+                if (frame % INPUT_EVERY == 0) bot.playStep(engine);
+                engine.tick(FRAME_MS);
+            }
+            logicPieces += engine.getPiecesPlaced();
+        }
+        double logicSecs = (System.nanoTime() - logicStart) / 1e9;
+
+        int n = (int) frames;
+        long[] sorted = Arrays.copyOf(frameNanos, n);
+        Arrays.sort(sorted);
+        MemoryUsage heap = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        Runtime rt = Runtime.getRuntime();
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\n");
+        field(json, "java", '"' + System.getProperty("java.vm.name") + ' ' + System.getProperty("java.runtime.version") + '"');
+        field(json, "os", '"' + System.getProperty("os.name") + ' ' + System.getProperty("os.arch") + '"');
+        field(json, "cpus", rt.availableProcessors());
+        field(json, "maxHeapMb", rt.maxMemory() >> 20);
+        field(json, "games", games);
+        field(json, "maxPieces", maxPieces);
+        field(json, "size", '"' + (width + "x" + height) + '"');
+        field(json, "quality", '"' + quality.name() + '"');
+        field(json, "checksum", '"' + (lines + ":" + score) + '"');
+        field(json, "pieces", pieces);
+        field(json, "frames", frames);
+        field(json, "seconds", String.format(Locale.ROOT, "%.3f", secs));
+        field(json, "piecesPerSec", String.format(Locale.ROOT, "%.1f", pieces / secs));
+        field(json, "framesPerSec", String.format(Locale.ROOT, "%.1f", frames / secs));
+        field(json, "frameMsP50", String.format(Locale.ROOT, "%.3f", percentile(sorted, n, 0.50)));
+        field(json, "frameMsP99", String.format(Locale.ROOT, "%.3f", percentile(sorted, n, 0.99)));
+        field(json, "frameMsMax", String.format(Locale.ROOT, "%.3f", percentile(sorted, n, 1.0)));
+        field(json, "logicPiecesPerSec", String.format(Locale.ROOT, "%.1f", logicPieces / logicSecs));
+        field(json, "allocBytesPerPiece", pieces > 0 ? alloc / pieces : 0);
+        field(json, "allocBytesPerFrame", frames > 0 ? alloc / frames : 0);
+        field(json, "gcCount", gcCount);
+        field(json, "gcTimeMs", gcTime);
+        field(json, "gcMaxPauseMs", maxPause);
+        json.append("  \"heapUsedMb\": ").append(heap.getUsed() >> 20).append("\n}");
+        return json.toString();
+    }
+
+    private static void field(StringBuilder json, String name, Object value) {
+        json.append("  \"").append(name).append("\": ").append(value).append(",\n");
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        Benchmark bench = new Benchmark();
+        Path out = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games" -> bench.games = Integer.parseInt(args[++i]);
+                case "--pieces" -> bench.maxPieces = Integer.parseInt(args[++i]);
+                case "--warmup" -> bench.warmupGames = Integer.parseInt(args[++i]);
+                case "--quality" -> bench.quality = RenderQuality.Tier.parse(args[++i]);
+                case "--out" -> out = Path.of(args[++i]);
+                case "--size" -> {
+                    String[] wh = args[++i].toLowerCase().split("x");
+                    bench.width = Integer.parseInt(wh[0]);
+                    bench.height = Integer.parseInt(wh[1]);
+                }
+                default -> System.err.println("Argumento ignorado: " + args[i]);
+            }
+        }
+        bench.listenForGc();
+        String json = bench.run();
+        System.out.println(json);
+        if (out != null) Files.writeString(out, json + System.lineSeparator());
+    }
+}
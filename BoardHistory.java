@@ -0,0 +1,190 @@
+import java.awt.Color;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Histórico das jogadas para desfazer e refazer (modo treino).
+ *
+ * Cada versão guarda o tabuleiro como 20 referências para linhas imutáveis
+ * e o resto do estado (peças, fila, score, nível, linhas) em poucos bytes.
+ * Uma linha que não mudou desde a versão anterior é a mesma instância,
+ * inclusive quando só desceu por causa de linhas limpas; as vazias são
+ * todas EMPTY_ROW. Na prática cada jogada acrescenta de 1 a 4 linhas novas.
+ *
+ * Desfazer, refazer e voltar a qualquer versão custam o mesmo: copiar 200
+ * referências e algumas dezenas de bytes. Jogar depois de desfazer descarta
+ * as versões à frente. Quando a estimativa de memória passa do limite, as
+ * versões mais antigas são descartadas.
+ *
+ * Não é thread-safe: usar na thread que mexe no engine.
+ */
+public final class BoardHistory {
+    static final long DEFAULT_MAX_BYTES = 16L << 20;
+
+    private static final int ROWS = GameEngine.ROWS;
+    private static final int COLS = GameEngine.COLS;
+    private static final Color[] EMPTY_ROW = new Color[COLS];
+    private static final int MAX_SHIFT = 4; // linhas limpas numa jogada
+    // Estimativas de memória (cabeçalhos de objeto e referências comprimidas)
+    private static final int CHECKPOINT_BYTES = 24 + (16 + ROWS * 4) + 16;
+    private static final int ROW_BYTES = 16 + COLS * 4;
+
+    private static final class Checkpoint {
+        final Color[][] rows;  // nunca modificadas depois de criadas
+        final byte[] progress; // GameEngine.saveProgress
+        final int bytes;       // o que esta versão acrescentou
+
+        Checkpoint(Color[][] rows, byte[] progress, int newRows) {
+            this.rows = rows;
+            this.progress = progress;
+            this.bytes = CHECKPOINT_BYTES + progress.length + newRows * ROW_BYTES;
+        }
+    }
+
+    private final long maxBytes;
+    private final ByteBuffer scratch = ByteBuffer.allocate(GameEngine.MAX_STATE_SIZE);
+    private Checkpoint[] ring = new Checkpoint[64];
+    private int head;        // versão mais antiga ainda guardada
+    private int size;
+    private int cursor = -1; // versão atual, contada a partir de head
+    private long bytes;
+    private long evicted;
+
+    public BoardHistory() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    public BoardHistory(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    private Checkpoint at(int index) {
+        return ring[(head + index) % ring.length];
+    }
+
+    /** Guarda o estado atual do engine como a versão mais nova. */
+    void record(GameEngine engine) {
+        // Jogar depois de desfazer descarta o que estava à frente
+        while (size > cursor + 1) {
+            int i = (head + size - 1) % ring.length;
+            bytes -= ring[i].bytes;
+            ring[i] = null;
+            size--;
+        }
+
+        Color[][] prev = size > 0 ? at(cursor).rows : null;
+        Color[][] rows = new Color[ROWS][];
+        int newRows = 0;
+        for (int r = 0; r < ROWS; r++) {
+            Color[] live = engine.row(r);
+            rows[r] = shared(live, prev, r);
+            if (rows[r] == null) {
+                rows[r] = live.clone();
+                newRows++;
+            }
+        }
+        scratch.clear();
+        engine.saveProgress(scratch);
+        byte[] progress = Arrays.copyOf(scratch.array(), scratch.position());
+
+        if (size == ring.length) grow();
+        Checkpoint c = new Checkpoint(rows, progress, newRows);
+        ring[(head + size) % ring.length] = c;
+        size++;
+        cursor = size - 1;
+        bytes += c.bytes;
+
+        while (bytes > maxBytes && size > 1) {
+            bytes -= ring[head].bytes;
+            ring[head] = null;
+            head = (head + 1) % ring.length;
+            size--;
+            cursor--;
+            evicted++;
+        }
+    }
+
+    // Linha da versão anterior com o mesmo conteúdo (na mesma posição ou deslocada por linhas limpas)
+    private static Color[] shared(Color[] live, Color[][] prev, int r) {
+        boolean empty = true;
+        for (Color c : live) {
+            if (c != null) {
+                empty = false;
+                break;
+            }
+        }
+        if (empty) return EMPTY_ROW;
+        if (prev == null) return null;
+        for (int k = 0; k <= MAX_SHIFT && r - k >= 0; k++) {
+            if (Arrays.equals(prev[r - k], live)) return prev[r - k];
+        }
+        return null;
+    }
+
+    private void grow() {
+        Checkpoint[] bigger = new Checkpoint[ring.length * 2];
+        for (int i = 0; i < size; i++) bigger[i] = at(i);
+        ring = bigger;
+        head = 0;
+    }
+
+    private void restore(GameEngine engine, int index) {
+        Checkpoint c = at(index);
+        engine.setRows(c.rows);
+        engine.loadProgress(ByteBuffer.wrap(c.progress));
+        cursor = index;
+    }
+
+    /**
+     * Desfaz a última jogada. Com a partida encerrada, volta ao início da
+     * peça que causou o fim. Retorna false se não há para onde voltar.
+     */
+    boolean undo(GameEngine engine) {
+        if (size == 0) return false;
+        if (engine.isGameOver()) {
+            restore(engine, cursor);
+            return true;
+        }
+        if (cursor == 0) return false;
+        restore(engine, cursor - 1);
+        return true;
+    }
+
+    /** Refaz a jogada desfeita mais recente. */
+    boolean redo(GameEngine engine) {
+        if (cursor + 1 >= size) return false;
+        restore(engine, cursor + 1);
+        return true;
+    }
+
+    /** Volta para a versão {@code index} (0 = mais antiga guardada). */
+    boolean rewindTo(GameEngine engine, int index) {
+        if (index < 0 || index >= size) return false;
+        restore(engine, index);
+        return true;
+    }
+
+    void clear() {
+        Arrays.fill(ring, null);
+        head = 0;
+        size = 0;
+        cursor = -1;
+        bytes = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int position() {
+        return cursor;
+    }
+
+    long estimatedBytes() {
+        return bytes;
+    }
+
+    long evictedCount() {
+        return evicted;
+    }
+}
@@ -0,0 +1,216 @@
+import java.awt.Point;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Jogador automático. Para a peça atual pega todas as posições finais
+ * alcançáveis ({@link PlacementGenerator}, inclusive tucks e spins) e
+ * pontua o tabuleiro resultante com uma soma ponderada de
+ * features (altura somada, buracos, irregularidade, poços e linhas
+ * limpas). Os pesos vêm do {@link Trainer} ou de {@link #DEFAULT_WEIGHTS}.
+ *
+ * O tabuleiro é lido do engine como uma máscara de bits por linha; a
+ * avaliação não aloca nada. Não é thread-safe: uma instância por thread.
+ */
+public final class Bot {
+    static final int HEIGHT = 0, HOLES = 1, BUMPINESS = 2, WELLS = 3, LINES = 4;
+    static final String[] FEATURES = {"height", "holes", "bumpiness", "wells", "lines"};
+
+    // Ponto de partida razoável, ajustado à mão
+    static final double[] DEFAULT_WEIGHTS = {-0.51, -0.36, -0.18, -0.10, 0.76};
+
+    private static final int ROWS = GameEngine.ROWS;
+    private static final int COLS = GameEngine.COLS;
+    private static final int FULL_ROW = (1 << COLS) - 1;
+
+    private final double[] weights;
+    private final PlacementGenerator movegen = new PlacementGenerator();
+    private final int[] work = new int[ROWS];
+    private final int[] heights = new int[COLS];
+
+    // Comandos até a posição escolhida para a peça atual
+    private final byte[] plan = new byte[PlacementGenerator.maxPathLength()];
+    private int planLength, planPos;
+    private int plannedFor = -1;
+    private boolean replanned;
+
+    public Bot(double[] weights) {
+        if (weights.length != FEATURES.length) {
+            throw new IllegalArgumentException("Esperados " + FEATURES.length + " pesos, recebidos " + weights.length);
+        }
+        this.weights = weights.clone();
+    }
+
+    public Bot() {
+        this(DEFAULT_WEIGHTS);
+    }
+
+    /* -------------------------
+       ESCOLHA DA POSIÇÃO
+       ------------------------- */
+
+    /**
+     * Escolhe a melhor posição da peça atual e guarda o caminho até ela.
+     * Retorna false se não há onde colocar.
+     */
+    boolean choose(GameEngine engine) {
+        planLength = planPos = 0;
+        int n = movegen.generate(engine);
+        double best = Double.NEGATIVE_INFINITY;
+        int bestIndex = -1;
+        Tetromino piece = movegen.piece();
+        for (int i = 0; i < n; i++) {
+            double score = evaluate(piece.blocks(movegen.rotation(i)), movegen.row(i), movegen.col(i));
+            if (score > best) {
+                best = score;
+                bestIndex = i;
+            }
+        }
+        if (bestIndex < 0) return false;
+        planLength = movegen.path(bestIndex, plan);
+        return true;
+    }
+
+    /** Pontua o tabuleiro depois de travar a peça em (row, col); não altera o tabuleiro. */
+    double evaluate(Point[] blocks, int row, int col) {
+        System.arraycopy(movegen.board(), 0, work, 0, ROWS);
+        for (Point p : blocks) {
+            int r = row + p.y;
+            if (r < 0) return Double.NEGATIVE_INFINITY; // travaria acima do topo: fim de jogo
+            work[r] |= 1 << (col + p.x);
+        }
+        // Remove as linhas cheias compactando de baixo para cima
+        int lines = 0;
+        int dst = ROWS - 1;
+        for (int r = ROWS - 1; r >= 0; r--) {
+            if (work[r] == FULL_ROW) {
+                lines++;
+            } else {
+                work[dst--] = work[r];
+            }
+        }
+        while (dst >= 0) work[dst--] = 0;
+
+        int height = 0, holes = 0;
+        for (int c = 0; c < COLS; c++) {
+            int bit = 1 << c;
+            int h = 0;
+            for (int r = 0; r < ROWS; r++) {
+                if ((work[r] & bit) != 0) {
+                    if (h == 0) h = ROWS - r;
+                } else if (h != 0) {
+                    holes++;
+                }
+            }
+            heights[c] = h;
+            height += h;
+        }
+        int bumpiness = 0, wells = 0;
+        for (int c = 0; c < COLS; c++) {
+            if (c > 0) bumpiness += Math.abs(heights[c] - heights[c - 1]);
+            int left = c > 0 ? heights[c - 1] : ROWS;
+            int right = c < COLS - 1 ? heights[c + 1] : ROWS;
+            int depth = Math.min(left, right) - heights[c];
+            if (depth > 0) wells += depth;
+        }
+        return weights[HEIGHT] * height + weights[HOLES] * holes + weights[BUMPINESS] * bumpiness
+            + weights[WELLS] * wells + weights[LINES] * lines;
+    }
+
+    /* -------------------------
+       EXECUÇÃO NO ENGINE
+       ------------------------- */
+
+    /** Leva a peça atual até a posição escolhida e faz hard drop. Retorna false se o jogo acabou. */
+    boolean placePiece(GameEngine engine) {
+        if (choose(engine)) {
+            for (int i = 0; i < planLength; i++) GameProtocol.applyInput(engine, plan[i]);
+        }
+        engine.hardDrop();
+        return !engine.isGameOver();
+    }
+
+    /** Joga sem gravidade até o fim ou até {@code maxPieces}; retorna as linhas limpas. */
+    int playGame(GameEngine engine, int maxPieces) {
+        while (!engine.isGameOver() && engine.getPiecesPlaced() < maxPieces) {
+            placePiece(engine);
+        }
+        return engine.getTotalLines();
+    }
+
+    /**
+     * Próximo comando (GameProtocol.IN_*) para jogar um passo de cada vez,
+     * como faria uma pessoa, terminando com hard drop.
+     */
+    byte nextInput(GameEngine engine) {
+        if (engine.isGameOver()) return 0;
+        if (plannedFor != engine.getPiecesPlaced()) {
+            plannedFor = engine.getPiecesPlaced();
+            replanned = false;
+            choose(engine);
+        }
+        return planPos < planLength ? plan[planPos++] : GameProtocol.IN_HARD_DROP;
+    }
+
+    /**
+     * Aplica o próximo comando no engine. Se ele não tiver efeito (a gravidade
+     * tirou a peça do caminho planejado), planeja de novo a partir da posição
+     * atual; se falhar outra vez na mesma peça, o próximo passo é o hard drop.
+     */
+    void playStep(GameEngine engine) {
+        boolean moved = switch (nextInput(engine)) {
+            case GameProtocol.IN_ROTATE -> engine.rotate();
+            case GameProtocol.IN_LEFT -> engine.move(-1);
+            case GameProtocol.IN_RIGHT -> engine.move(1);
+            case GameProtocol.IN_SOFT_DROP -> {
+                // A gravidade pode já ter descido esta linha: não travar antes da hora
+                if (engine.isValidPosition(engine.getCurRow() + 1, engine.getCurCol(), engine.getRotation())) {
+                    engine.dropOneRow();
+                }
+                yield true;
+            }
+            case GameProtocol.IN_HARD_DROP -> {
+                engine.hardDrop();
+                yield true;
+            }
+            default -> true;
+        };
+        if (moved || engine.isGameOver()) return;
+        if (!replanned) {
+            replanned = true;
+            choose(engine);
+        } else {
+            planPos = planLength;
+        }
+    }
+
+    /* -------------------------
+       ARQUIVO DE PESOS: uma linha "feature valor", # para comentários
+       ------------------------- */
+
+    static double[] readWeights(Path file) throws IOException {
+        double[] w = DEFAULT_WEIGHTS.clone();
+        for (String line : Files.readAllLines(file)) {
+            line = line.strip();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] kv = line.split("\\s+");
+            int i = List.of(FEATURES).indexOf(kv[0]);
+            if (i < 0 || kv.length != 2) throw new IOException("Linha inválida em " + file + ": " + line);
+            w[i] = Double.parseDouble(kv[1]);
+        }
+        return w;
+    }
+
+    static void writeWeights(Path file, double[] w, String comment) throws IOException {
+        List<String> lines = new ArrayList<>();
+        if (comment != null) lines.add("# " + comment);
+        for (int i = 0; i < FEATURES.length; i++) {
+            lines.add(String.format(Locale.ROOT, "%s %.6f", FEATURES[i], w[i]));
+        }
+        Files.write(file, lines);
+    }
+}
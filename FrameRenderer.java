@@ -0,0 +1,101 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Desenha o GamePanel numa thread própria ("tetris-render"), fora do EDT
+ * (opção --render-thread).
+ *
+ * A lógica continua no EDT (Timer e teclado) e publica um
+ * {@link RenderFrame} por passo; esta thread desenha o quadro mais recente
+ * numa imagem fora da tela e o EDT só copia a imagem pronta para a janela.
+ * As imagens giram entre três buffers: a que está sendo desenhada aqui, a
+ * última pronta e a que o EDT está mostrando. Nenhuma é reescrita enquanto
+ * a outra thread a usa, então não há trava nem quadro pela metade.
+ *
+ * Desenha quando chega um estado novo ou o tamanho muda, e a até 60 quadros
+ * por segundo enquanto há efeitos animando; fora isso fica parada.
+ */
+final class FrameRenderer {
+    private static final long FRAME_NANOS = 16_666_667L;
+
+    private final GamePanel panel;
+    private final Thread thread;
+    private final AtomicReference<BufferedImage> ready = new AtomicReference<>();
+    private final ConcurrentLinkedQueue<BufferedImage> free = new ConcurrentLinkedQueue<>();
+    private BufferedImage shown; // só o EDT
+    private volatile boolean dirty = true;
+    private volatile boolean running = true;
+
+    FrameRenderer(GamePanel panel) {
+        this.panel = panel;
+        thread = new Thread(this::loop, "tetris-render");
+        thread.setDaemon(true);
+    }
+
+    void start() {
+        thread.start();
+    }
+
+    void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+    }
+
+    /** Pede um quadro novo; pode ser chamado de qualquer thread. */
+    void requestFrame() {
+        dirty = true;
+        LockSupport.unpark(thread);
+    }
+
+    /** Quadro mais recente para o EDT mostrar (null antes do primeiro). */
+    BufferedImage latest() {
+        BufferedImage img = ready.getAndSet(null);
+        if (img != null) {
+            if (shown != null) free.offer(shown);
+            shown = img;
+        }
+        return shown;
+    }
+
+    private void loop() {
+        BufferedImage back = null;
+        while (running) {
+            if (!dirty && !panel.isAnimating()) {
+                LockSupport.park(this);
+                continue;
+            }
+            dirty = false;
+            long start = System.nanoTime();
+            // Tamanho pelo Layout publicado: a geometria do componente só pode ser lida no EDT
+            GamePanel.Layout layout = panel.currentLayout();
+            int w = Math.max(1, layout.width);
+            int h = Math.max(1, layout.height);
+            if (back == null || back.getWidth() != w || back.getHeight() != h) back = image(w, h);
+
+            Graphics2D g = back.createGraphics();
+            try {
+                panel.render(g, layout);
+            } finally {
+                g.dispose();
+            }
+            BufferedImage untaken = ready.getAndSet(back); // o EDT ainda não pegou: volta a ser o rascunho
+            back = untaken != null ? untaken : free.poll();
+            panel.repaint();
+
+            long wait = FRAME_NANOS - (System.nanoTime() - start);
+            if (wait > 0) LockSupport.parkNanos(this, wait);
+        }
+    }
+
+    // Imagem livre do tamanho pedido; as de outro tamanho (janela redimensionada) são descartadas
+    private BufferedImage image(int w, int h) {
+        BufferedImage img;
+        while ((img = free.poll()) != null) {
+            if (img.getWidth() == w && img.getHeight() == h) return img;
+        }
+        return new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+    }
+}
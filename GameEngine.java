@@ -0,0 +1,436 @@
+import java.awt.Color;
+import java.awt.Point;
+import java.nio.ByteBuffer;
+
+/**
+ * Regras do jogo sem nenhuma dependência de Swing: tabuleiro, peça atual,
+ * movimentos, travamento, limpeza de linhas, pontuação e nível.
+ *
+ * O GamePanel desenha e controla o Timer; o servidor e as ferramentas sem
+ * interface usam esta classe diretamente. Não é thread-safe: cada instância
+ * deve ser usada por uma thread de cada vez.
+ */
+public class GameEngine {
+    static final int COLS = 10;
+    static final int ROWS = 20;
+
+    // Deslocamentos de coluna tentados ao girar, em ordem (ver rotate e PlacementGenerator)
+    static final int[] ROTATION_KICKS = {0, -1, 1, -2, 2};
+
+    // Avisos síncronos para quem controla a partida (timer, histórico, diálogo de fim de jogo).
+    // Observadores (efeitos, métricas) leem o fluxo de GameEvents na própria thread.
+    interface Listener {
+        default void levelChanged(int level, int dropDelay) {}
+        // nova peça em jogo (também no início da partida)
+        default void pieceSpawned() {}
+        default void gameOver() {}
+    }
+
+    private static final Listener NO_LISTENER = new Listener() {};
+
+    private Listener listener = NO_LISTENER;
+    private GameEvents events; // opcional
+    private int eventSource;
+    private TrainingData.Writer trainingLog; // opcional: uma linha por peça travada
+
+    // GAME STATE
+    private Color[][] wall; // grid of placed blocks
+    private Tetromino current;
+    private Tetromino next;
+    private int curRow, curCol, rotation;
+    private int dropDelay = 600; // ms, will decrease with levels
+    private boolean isGameOver = false;
+    private PieceQueue pieces;
+    private int gravityElapsed = 0; // ms acumulados desde a última queda (modo sem Timer)
+    private int piecesPlaced = 0;
+    private int boardVersion = 0; // muda a cada escrita no tabuleiro (inclusive a trava que encerra a partida)
+    private final GameStats stats = new GameStats();
+
+    // SCORE / LEVEL
+    private int score = 0;
+    private int level = 1;
+    private int totalLines = 0;
+
+    public GameEngine() {
+        wall = new Color[ROWS][COLS];
+    }
+
+    void setListener(Listener listener) {
+        this.listener = listener != null ? listener : NO_LISTENER;
+    }
+
+    // Publica os eventos da partida em {@code events} (null desliga); o engine vira o produtor do fluxo
+    void setEvents(GameEvents events, int source) {
+        this.events = events;
+        this.eventSource = source;
+    }
+
+    // Grava cada decisão (tabuleiro antes, peça, posição, linhas limpas) em {@code log} (null desliga)
+    void setTrainingLog(TrainingData.Writer log) {
+        this.trainingLog = log;
+    }
+
+    /** Reinicia a partida consumindo peças do gerador informado. */
+    public void reset(PieceGenerator generator) {
+        isGameOver = false;
+        score = 0;
+        level = 1;
+        totalLines = 0;
+        dropDelay = 600;
+        gravityElapsed = 0;
+        piecesPlaced = 0;
+        stats.reset();
+        wall = new Color[ROWS][COLS];
+        boardVersion++;
+        pieces = new PieceQueue(generator);
+        next = null;
+        spawnPiece();
+    }
+
+    private void spawnPiece() {
+        current = next != null ? next : pieces.take();
+        next = pieces.take();
+        rotation = 0;
+        curRow = -current.getTopEmptyRows(rotation);
+        curCol = COLS / 2 - 2;
+        if (!isValidPosition(curRow, curCol, rotation)) {
+            endGame();
+        } else {
+            listener.pieceSpawned();
+        }
+    }
+
+    private void endGame() {
+        isGameOver = true;
+        stats.finish(score, level, totalLines);
+        if (events != null) events.publish(GameEvents.GAME_OVER, eventSource, score, level, totalLines, piecesPlaced, 0);
+        listener.gameOver();
+    }
+
+    /**
+     * Avança a gravidade em {@code elapsedMs} (usado quando não há Timer do Swing).
+     * Retorna true se a peça desceu ou travou.
+     */
+    public boolean tick(int elapsedMs) {
+        if (isGameOver) return false;
+        gravityElapsed += elapsedMs;
+        boolean changed = false;
+        while (gravityElapsed >= dropDelay && !isGameOver) {
+            gravityElapsed -= dropDelay;
+            dropOneRow();
+            changed = true;
+        }
+        return changed;
+    }
+
+    public boolean move(int dx) {
+        if (isGameOver) return false;
+        if (isValidPosition(curRow, curCol + dx, rotation)) {
+            curCol += dx;
+            return true;
+        }
+        return false;
+    }
+
+    public void hardDrop() {
+        if (isGameOver) return;
+        while (isValidPosition(curRow + 1, curCol, rotation)) {
+            curRow++;
+        }
+        lockPiece();
+    }
+
+    // Desce uma linha ou trava a peça; retorna true se travou
+    public boolean dropOneRow() {
+        if (isGameOver) return false;
+        if (isValidPosition(curRow + 1, curCol, rotation)) {
+            curRow++;
+            return false;
+        }
+        lockPiece();
+        return true;
+    }
+
+    public boolean rotate() {
+        if (isGameOver) return false;
+        int newRot = (rotation + 1) % current.rotationCount();
+        for (int k : ROTATION_KICKS) {
+            if (isValidPosition(curRow, curCol + k, newRot)) {
+                rotation = newRot;
+                curCol += k;
+                return true;
+            }
+        }
+        if (isValidPosition(curRow - 1, curCol, newRot)) {
+            rotation = newRot;
+            curRow -= 1;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isValidPosition(int r, int c, int rot) {
+        for (Point p : current.blocks(rot)) {
+            int rr = r + p.y;
+            int cc = c + p.x;
+            if (cc < 0 || cc >= COLS) return false;
+            if (rr >= ROWS) return false;
+            if (rr >= 0 && wall[rr][cc] != null) return false;
+        }
+        return true;
+    }
+
+    // Linha onde a peça atual pararia se caísse agora
+    public int ghostRow() {
+        int ghostRow = curRow;
+        while (isValidPosition(ghostRow + 1, curCol, rotation)) ghostRow++;
+        return ghostRow;
+    }
+
+    private void lockPiece() {
+        if (trainingLog != null) trainingLog.capture(wall);
+        boardVersion++; // antes do laço: no topo estourado parte das células já foi escrita
+        for (Point p : current.blocks(rotation)) {
+            int rr = curRow + p.y;
+            int cc = curCol + p.x;
+            if (rr >= 0 && rr < ROWS && cc >= 0 && cc < COLS) {
+                wall[rr][cc] = current.getColor();
+            } else if (rr < 0) {
+                endGame();
+                return;
+            }
+        }
+        piecesPlaced++;
+        if (events != null) {
+            events.publish(GameEvents.PIECE_LOCKED, eventSource, current.ordinal(), curRow, curCol, rotation, 0);
+        }
+        int height = stackHeight();
+        int cleared = clearLines();
+        stats.pieceLocked(current, cleared, height);
+        if (trainingLog != null) trainingLog.record(current, next, curRow, curCol, rotation, cleared);
+        if (cleared > 0) {
+            score += linePoints(cleared) * level;
+            totalLines += cleared;
+            int newLevel = totalLines / 10 + 1;
+            if (newLevel > level) {
+                level = newLevel;
+                dropDelay = Math.max(80, 600 - (level - 1) * 40);
+                if (events != null) events.publish(GameEvents.LEVEL_UP, eventSource, level, dropDelay, 0, 0, 0);
+                listener.levelChanged(level, dropDelay);
+            }
+        }
+        spawnPiece();
+    }
+
+    // Altura da pilha: linhas do topo ocupado até o fundo
+    private int stackHeight() {
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++) {
+                if (wall[r][c] != null) return ROWS - r;
+            }
+        }
+        return 0;
+    }
+
+    static int linePoints(int cleared) {
+        return switch (cleared) {
+            case 1 -> 40;
+            case 2 -> 100;
+            case 3 -> 300;
+            case 4 -> 1200;
+            default -> cleared * 300;
+        };
+    }
+
+    private int clearLines() {
+        int cleared = 0;
+        for (int r = ROWS - 1; r >= 0; r--) {
+            boolean full = true;
+            for (int c = 0; c < COLS; c++) {
+                if (wall[r][c] == null) {
+                    full = false;
+                    break;
+                }
+            }
+
+            if (full) {
+                cleared++;
+                if (events != null) {
+                    events.publish(GameEvents.LINES_CLEARED, eventSource, r, cleared, linePoints(cleared), piecesPlaced, GameEvents.packRow(wall[r]));
+                }
+
+                // Move as linhas para baixo
+                for (int rr = r; rr > 0; rr--) {
+                    System.arraycopy(wall[rr - 1], 0, wall[rr], 0, COLS);
+                }
+                for (int cc = 0; cc < COLS; cc++) wall[0][cc] = null;
+                r++; // recheck same index after shift
+            }
+        }
+        return cleared;
+    }
+
+    // ---- snapshot binário (ver GameSnapshot) ----
+
+    // Tamanho máximo gravado por saveState: tabuleiro, campos, fila de até 64 peças, gerador e estatísticas
+    static final int MAX_STATE_SIZE = ROWS * COLS + 5 + 6 * 4 + 2 + (1 + 64) + (1 + 16 + 1 + 7) + GameStats.STATE_SIZE;
+
+    /** Grava o estado completo da partida, inclusive a fila, o gerador de peças e as estatísticas. */
+    void saveState(ByteBuffer out) {
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++) {
+                out.put((byte) GameProtocol.colorIndex(wall[r][c]));
+            }
+        }
+        saveProgress(out);
+        stats.saveState(out);
+    }
+
+    /** Tudo de {@link #saveState} menos o tabuleiro (usado pelo BoardHistory). */
+    void saveProgress(ByteBuffer out) {
+        out.put((byte) (current == null ? -1 : current.ordinal()));
+        out.put((byte) (next == null ? -1 : next.ordinal()));
+        out.put((byte) curRow);
+        out.put((byte) curCol);
+        out.put((byte) rotation);
+        out.putInt(score);
+        out.putInt(level);
+        out.putInt(totalLines);
+        out.putInt(dropDelay);
+        out.putInt(gravityElapsed);
+        out.putInt(piecesPlaced);
+        out.put((byte) (isGameOver ? 1 : 0));
+        out.put((byte) (pieces != null ? 1 : 0));
+        if (pieces != null) pieces.saveState(out);
+    }
+
+    /** Restaura um estado gravado por {@link #saveState}; o listener não é avisado. */
+    void loadState(ByteBuffer in) {
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++) {
+                wall[r][c] = GameProtocol.colorOf(in.get());
+            }
+        }
+        boardVersion++;
+        loadProgress(in);
+        stats.loadState(in);
+        if (isGameOver) stats.finish(score, level, totalLines);
+    }
+
+    /** Restaura o que {@link #saveProgress} gravou; o tabuleiro fica como está. */
+    void loadProgress(ByteBuffer in) {
+        int cur = in.get();
+        int nxt = in.get();
+        current = cur < 0 ? null : Tetromino.byOrdinal(cur);
+        next = nxt < 0 ? null : Tetromino.byOrdinal(nxt);
+        curRow = in.get();
+        curCol = in.get();
+        rotation = in.get();
+        score = in.getInt();
+        level = in.getInt();
+        totalLines = in.getInt();
+        dropDelay = in.getInt();
+        gravityElapsed = in.getInt();
+        piecesPlaced = in.getInt();
+        isGameOver = in.get() != 0;
+        pieces = in.get() != 0 ? PieceQueue.read(in) : null;
+    }
+
+    // ---- escrita direta (espectadores): sobrescreve o estado sem passar pelas regras ----
+
+    void setCell(int r, int c, Color color) {
+        wall[r][c] = color;
+        boardVersion++;
+    }
+
+    // Copia as linhas informadas para o tabuleiro (as linhas de origem não são guardadas)
+    void setRows(Color[][] rows) {
+        for (int r = 0; r < ROWS; r++) {
+            System.arraycopy(rows[r], 0, wall[r], 0, COLS);
+        }
+        boardVersion++;
+    }
+
+    void setPiece(Tetromino current, Tetromino next, int row, int col, int rot) {
+        this.current = current;
+        this.next = next;
+        this.curRow = row;
+        this.curCol = col;
+        this.rotation = rot;
+    }
+
+    void setProgress(int score, int level, int totalLines) {
+        this.score = score;
+        this.level = level;
+        this.totalLines = totalLines;
+        this.dropDelay = Math.max(80, 600 - (level - 1) * 40);
+    }
+
+    void setGameOver(boolean gameOver) {
+        this.isGameOver = gameOver;
+    }
+
+    // ---- leitura do estado ----
+
+    public Color cell(int r, int c) {
+        return wall[r][c];
+    }
+
+    // Linha viva do tabuleiro, só para leitura
+    Color[] row(int r) {
+        return wall[r];
+    }
+
+    public Tetromino getCurrent() {
+        return current;
+    }
+
+    public Tetromino getNext() {
+        return next;
+    }
+
+    public int getCurRow() {
+        return curRow;
+    }
+
+    public int getCurCol() {
+        return curCol;
+    }
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getTotalLines() {
+        return totalLines;
+    }
+
+    public int getDropDelay() {
+        return dropDelay;
+    }
+
+    GameStats getStats() {
+        return stats;
+    }
+
+    public int getPiecesPlaced() {
+        return piecesPlaced;
+    }
+
+    // Contador de mudanças do tabuleiro: igual ao anterior = tabuleiro igual
+    int getBoardVersion() {
+        return boardVersion;
+    }
+
+    public boolean isGameOver() {
+        return isGameOver;
+    }
+}
@@ -0,0 +1,204 @@
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fluxo de eventos de uma ou mais partidas (peça travada, linha limpa,
+ * subida de nível, fim de jogo) num buffer circular pré-alocado, no estilo
+ * do disruptor.
+ *
+ * Um único produtor (a thread que avança os engines) escreve campos
+ * primitivos em arrays fixos: publicar não aloca, não trava e nunca espera
+ * por quem consome. Cada consumidor tem seu próprio {@link Subscriber} e
+ * lê na sua thread, no seu ritmo; se ficar mais de {@code capacity} eventos
+ * para trás, os mais antigos são sobrescritos e ele pula para frente,
+ * contando quantos perdeu.
+ *
+ * Cada posição guarda o número de sequência do evento que está nela. O
+ * produtor marca a posição como em escrita (-1), grava os campos e só então
+ * publica a sequência; o consumidor confere a sequência antes e depois de
+ * copiar os campos, então nunca entrega um evento pela metade.
+ *
+ * Campos por tipo:
+ * <pre>
+ * PIECE_LOCKED   a = peça (ordinal), b = linha, c = coluna, d = rotação
+ * LINES_CLEARED  um por linha: a = linha, b = linhas limpas até agora nesta jogada,
+ *                c = pontos da linha, d = peças travadas na partida (identifica a jogada),
+ *                payload = cores (4 bits por coluna, GameProtocol.colorIndex)
+ * LEVEL_UP       a = nível, b = intervalo de queda (ms)
+ * GAME_OVER      a = score, b = nível, c = linhas, d = peças
+ * </pre>
+ * {@code source} identifica a partida (id da sessão no servidor, 0 no jogo local).
+ */
+public final class GameEvents {
+    static final int PIECE_LOCKED = 1;
+    static final int LINES_CLEARED = 2;
+    static final int LEVEL_UP = 3;
+    static final int GAME_OVER = 4;
+
+    private final int capacity;
+    private final int mask;
+    private final AtomicLongArray sequences;
+    private final int[] types, sources, as, bs, cs, ds;
+    private final long[] payloads;
+    private final AtomicLong published = new AtomicLong(); // eventos publicados até agora
+    private long next; // só o produtor
+
+    /** {@code capacity} é arredondada para a próxima potência de 2. */
+    public GameEvents(int capacity) {
+        this.capacity = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = this.capacity - 1;
+        sequences = new AtomicLongArray(this.capacity);
+        for (int i = 0; i < this.capacity; i++) sequences.set(i, -1);
+        types = new int[this.capacity];
+        sources = new int[this.capacity];
+        as = new int[this.capacity];
+        bs = new int[this.capacity];
+        cs = new int[this.capacity];
+        ds = new int[this.capacity];
+        payloads = new long[this.capacity];
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    /** Publica um evento; só pode ser chamado pela thread produtora. */
+    void publish(int type, int source, int a, int b, int c, int d, long payload) {
+        long seq = next++;
+        int i = (int) (seq & mask);
+        sequences.lazySet(i, -1);
+        VarHandle.storeStoreFence(); // a marca fica visível antes dos campos novos
+        types[i] = type;
+        sources[i] = source;
+        as[i] = a;
+        bs[i] = b;
+        cs[i] = c;
+        ds[i] = d;
+        payloads[i] = payload;
+        sequences.lazySet(i, seq);
+        published.lazySet(seq + 1);
+    }
+
+    /** Consumidor novo; recebe só o que for publicado daqui em diante. */
+    Subscriber subscribe() {
+        return new Subscriber(published.get());
+    }
+
+    /** Evento entregue ao {@link Handler}; a instância é reutilizada a cada chamada. */
+    static final class Event {
+        long sequence;
+        int type, source, a, b, c, d;
+        long payload;
+    }
+
+    interface Handler {
+        void onEvent(Event e);
+    }
+
+    final class Subscriber {
+        private final Event event = new Event();
+        private long next;
+        private volatile long lost; // escrito só pela thread consumidora
+
+        private Subscriber(long start) {
+            next = start;
+        }
+
+        /** Entrega até {@code max} eventos pendentes; retorna quantos entregou. */
+        int poll(Handler handler, int max) {
+            int delivered = 0;
+            long available = published.get();
+            while (next < available && delivered < max) {
+                if (available - next > capacity) {
+                    // Ficou para trás: os mais antigos já foram sobrescritos
+                    long skipTo = available - capacity;
+                    lost += skipTo - next;
+                    next = skipTo;
+                }
+                int i = (int) (next & mask);
+                if (sequences.get(i) != next) {
+                    // Sobrescrito entre a leitura de published e agora
+                    available = published.get();
+                    if (available - next <= capacity) {
+                        lost++;
+                        next++;
+                    }
+                    continue;
+                }
+                event.sequence = next;
+                event.type = types[i];
+                event.source = sources[i];
+                event.a = as[i];
+                event.b = bs[i];
+                event.c = cs[i];
+                event.d = ds[i];
+                event.payload = payloads[i];
+                VarHandle.loadLoadFence(); // campos lidos antes de conferir de novo
+                if (sequences.get(i) != next) continue; // sobrescrito durante a cópia: a próxima volta pula
+                next++;
+                delivered++;
+                handler.onEvent(event);
+            }
+            return delivered;
+        }
+
+        /** Eventos sobrescritos antes de serem lidos. */
+        long lost() {
+            return lost;
+        }
+    }
+
+    /** Empacota as cores de uma linha em 4 bits por coluna (payload de LINES_CLEARED). */
+    static long packRow(java.awt.Color[] row) {
+        long packed = 0;
+        for (int c = row.length - 1; c >= 0; c--) {
+            packed = packed << 4 | GameProtocol.colorIndex(row[c]);
+        }
+        return packed;
+    }
+
+    static java.awt.Color colorAt(long packed, int col) {
+        return GameProtocol.colorOf((int) (packed >>> (col * 4)) & 0xF);
+    }
+
+    /**
+     * Thread consumidora que esvazia os fluxos informados; dorme um pouco
+     * (até 1ms) quando não há nada.
+     */
+    static final class Consumer {
+        private final Subscriber[] subs;
+        private final Thread thread;
+
+        Consumer(String name, Handler handler, GameEvents... rings) {
+            subs = new Subscriber[rings.length];
+            for (int i = 0; i < rings.length; i++) subs[i] = rings[i].subscribe();
+            thread = new Thread(() -> {
+                long idleNanos = 0;
+                while (!Thread.currentThread().isInterrupted()) {
+                    int n = 0;
+                    for (Subscriber s : subs) n += s.poll(handler, 1024);
+                    if (n > 0) {
+                        idleNanos = 0;
+                    } else {
+                        idleNanos = Math.min(1_000_000L, Math.max(10_000L, idleNanos * 2));
+                        LockSupport.parkNanos(idleNanos);
+                    }
+                }
+            }, name);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        long lost() {
+            long total = 0;
+            for (Subscriber s : subs) total += s.lost();
+            return total;
+        }
+
+        void stop() {
+            thread.interrupt();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+import java.awt.Color;
+import java.nio.ByteBuffer;
+
+/**
+ * Protocolo binário entre o servidor e os clientes remotos.
+ *
+ * Cliente -> servidor: um byte por comando (IN_*). Uma conexão que começa
+ * com IN_SPECTATE seguido do id da sessão (i32) vira espectadora dessa
+ * sessão e não joga; qualquer outro primeiro byte cria a partida do jogador.
+ *
+ * Servidor -> cliente: quadros {@code [u16 tamanho][u8 tipo][payload]},
+ * onde o tamanho conta o tipo e o payload.
+ * - MSG_SYNC: um quadro do {@link StateSync} (keyframe ou delta). Jogador e
+ *   espectadores recebem exatamente os mesmos bytes.
+ * - MSG_SESSION: [i32 id da sessão], enviado só ao jogador, uma vez, antes
+ *   do primeiro MSG_SYNC. É o id que os espectadores usam no handshake.
+ *   Clientes que não precisam dele ignoram o tipo.
+ */
+final class GameProtocol {
+    // Comandos do cliente
+    static final byte IN_LEFT = 1;
+    static final byte IN_RIGHT = 2;
+    static final byte IN_SOFT_DROP = 3;
+    static final byte IN_ROTATE = 4;
+    static final byte IN_HARD_DROP = 5;
+    static final byte IN_RESTART = 6;
+    static final byte IN_SPECTATE = 7;
+
+    // Mensagens do servidor
+    static final byte MSG_SYNC = 3;
+    static final byte MSG_SESSION = 4;
+
+    static final int HEADER_SIZE = 3;
+
+    private GameProtocol() {}
+
+    // 0 = vazio, 1..7 = Tetromino.ordinal() + 1
+    static int colorIndex(Color c) {
+        if (c == null) return 0;
+        for (int i = 0; i < Tetromino.COUNT; i++) {
+            if (Tetromino.byOrdinal(i).getColor() == c) return i + 1;
+        }
+        return 0;
+    }
+
+    static Color colorOf(int index) {
+        return index == 0 ? null : Tetromino.byOrdinal(index - 1).getColor();
+    }
+
+    static void applyInput(GameEngine engine, byte input) {
+        switch (input) {
+            case IN_LEFT -> engine.move(-1);
+            case IN_RIGHT -> engine.move(1);
+            case IN_SOFT_DROP -> engine.dropOneRow();
+            case IN_ROTATE -> engine.rotate();
+            case IN_HARD_DROP -> engine.hardDrop();
+            default -> { }
+        }
+    }
+
+    // Escreve [u16 tamanho][MSG_SESSION][i32 id]
+    static void writeSession(ByteBuffer out, int sessionId) {
+        out.putShort((short) 5);
+        out.put(MSG_SESSION);
+        out.putInt(sessionId);
+    }
+
+    // Escreve [u16 tamanho][MSG_SYNC][quadro]; retorna false se nada mudou
+    static boolean writeSync(ByteBuffer out, StateSync.Encoder encoder, GameEngine engine, int tick) {
+        int start = out.position();
+        out.position(start + HEADER_SIZE);
+        if (!encoder.encode(engine, tick, out)) {
+            out.position(start);
+            return false;
+        }
+        out.putShort(start, (short) (out.position() - start - 2));
+        out.put(start + 2, MSG_SYNC);
+        return true;
+    }
+}
@@ -0,0 +1,568 @@
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Servidor sem interface que roda muitas partidas ao mesmo tempo.
+ *
+ * As sessões são divididas em shards, um por núcleo. Cada shard é avançado
+ * por um agendador compartilhado a cada TICK_MS: aplica os comandos
+ * recebidos, roda a gravidade e envia o estado. Uma única thread com
+ * Selector aceita conexões e lê os comandos (ver {@link GameProtocol}).
+ *
+ * O quadro de cada tick é codificado uma única vez ({@link StateSync}) e os
+ * mesmos bytes vão para o jogador e para todos os espectadores da sessão.
+ *
+ * A partida só é criada no primeiro byte da conexão: IN_SPECTATE faz dela
+ * espectadora, qualquer outro comando a torna jogadora e o jogador recebe o
+ * id da sessão (MSG_SESSION). Só o shard dono da
+ * sessão escreve nos sockets dela; a thread de IO apenas lê.
+ *
+ * Uso: java Tetris --server [porta]
+ */
+public class GameServer {
+    static final int TICK_MS = 16;
+
+    private final int port;
+    private final long rootSeed;
+    private final Shard[] shards;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicInteger nextSessionId = new AtomicInteger();
+    private final AtomicInteger sessionCount = new AtomicInteger();
+    private final AtomicInteger spectatorCount = new AtomicInteger();
+    private final ConcurrentHashMap<Integer, Session> sessionsById = new ConcurrentHashMap<>();
+    private volatile boolean running = true;
+    // Métricas de jogo a partir dos eventos dos shards, fora da thread de tick
+    private final EventCounters counters = new EventCounters();
+    private GameEvents.Consumer eventConsumer;
+    private long lastPieces, lastLines;
+    // Últimos totais lidos de cada shard: o relatório usa a diferença (só a thread do relatório)
+    private final long[] lastTicks, lastBusyNanos;
+    private ServerSocketChannel serverChannel;
+    private Selector selector;
+
+    public GameServer(int port, long rootSeed, int shardCount) {
+        this.port = port;
+        this.rootSeed = rootSeed;
+        this.shards = new Shard[shardCount];
+        for (int i = 0; i < shardCount; i++) shards[i] = new Shard();
+        this.lastTicks = new long[shardCount];
+        this.lastBusyNanos = new long[shardCount];
+        this.scheduler = Executors.newScheduledThreadPool(shardCount, r -> {
+            Thread t = new Thread(r, "tetris-tick");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** Abre o socket e inicia os ticks; retorna a porta efetivamente usada. */
+    public int start() throws IOException {
+        selector = Selector.open();
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.bind(new InetSocketAddress(port));
+        serverChannel.configureBlocking(false);
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+
+        GameEvents[] rings = new GameEvents[shards.length];
+        for (int i = 0; i < shards.length; i++) rings[i] = shards[i].events;
+        eventConsumer = new GameEvents.Consumer("tetris-events", counters, rings);
+        for (Shard shard : shards) {
+            scheduler.scheduleAtFixedRate(shard::tick, TICK_MS, TICK_MS, TimeUnit.MILLISECONDS);
+        }
+        Thread io = new Thread(this::ioLoop, "tetris-io");
+        io.setDaemon(true);
+        io.start();
+        return ((InetSocketAddress) serverChannel.getLocalAddress()).getPort();
+    }
+
+    public void stop() {
+        running = false;
+        scheduler.shutdownNow();
+        if (eventConsumer != null) eventConsumer.stop();
+        selector.wakeup();
+    }
+
+    int getSessionCount() {
+        return sessionCount.get();
+    }
+
+    // Thread única de aceite/leitura
+    private void ioLoop() {
+        ByteBuffer readBuf = ByteBuffer.allocateDirect(4096);
+        try {
+            while (running) {
+                selector.select(100);
+                Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+                while (it.hasNext()) {
+                    SelectionKey key = it.next();
+                    it.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        read(key, readBuf);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            try {
+                selector.close();
+                serverChannel.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel ch;
+        while ((ch = serverChannel.accept()) != null) {
+            ch.configureBlocking(false);
+            ch.socket().setTcpNoDelay(true);
+            ch.register(selector, SelectionKey.OP_READ, new Connection(ch));
+        }
+    }
+
+    private void read(SelectionKey key, ByteBuffer buf) {
+        Connection c = (Connection) key.attachment();
+        buf.clear();
+        int n;
+        try {
+            n = c.channel.read(buf);
+        } catch (IOException e) {
+            n = -1;
+        }
+        if (n < 0) {
+            key.cancel();
+            if (c.session != null) {
+                c.session.closed = true;
+            } else if (c.spectator != null) {
+                c.spectator.closed = true;
+            } else {
+                closeQuietly(c.channel); // ainda sem dono: ninguém mais usa o socket
+            }
+            return;
+        }
+        buf.flip();
+        while (buf.hasRemaining()) {
+            byte b = buf.get();
+            if (c.session != null) {
+                c.session.offerInput(b);
+            } else if (c.spectator != null) {
+                continue; // espectadores não jogam
+            } else if (c.handshake >= 0) {
+                // Acumulando o id da sessão a assistir
+                c.handshake = (c.handshake << 8) | (b & 0xFF);
+                if (++c.handshakeBytes == 4) startSpectating(c);
+            } else if (b == GameProtocol.IN_SPECTATE) {
+                c.handshake = 0;
+            } else {
+                startPlaying(c);
+                c.session.offerInput(b);
+            }
+        }
+    }
+
+    // Primeiro comando de jogador: cria a partida no shard do id
+    private void startPlaying(Connection c) {
+        int id = nextSessionId.getAndIncrement();
+        Session s = new Session(id, c.channel, PieceGenerator.seedFor(rootSeed, id));
+        c.session = s;
+        sessionsById.put(id, s);
+        shards[id % shards.length].incoming.add(s);
+        sessionCount.incrementAndGet();
+    }
+
+    // Entrega o pedido ao shard da sessão assistida, que faz a troca na própria thread
+    private void startSpectating(Connection c) {
+        c.spectator = new Receiver(c.channel);
+        shards[Math.floorMod(c.handshake, shards.length)].incomingSpectators.add(new SpectateRequest(c.handshake, c.spectator));
+    }
+
+    private static void closeQuietly(SocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /* -------------------------
+       CONEXÃO: estado do lado da thread de IO
+       ------------------------- */
+    static final class Connection {
+        final SocketChannel channel;
+        Session session;    // jogador
+        Receiver spectator; // espectador
+        int handshake = -1; // >= 0: acumulando o id da sessão a assistir
+        int handshakeBytes;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    static final class SpectateRequest {
+        final int sessionId;
+        final Receiver receiver;
+
+        SpectateRequest(int sessionId, Receiver receiver) {
+            this.sessionId = sessionId;
+            this.receiver = receiver;
+        }
+    }
+
+    /* -------------------------
+       RECEPTOR: uma conexão que recebe os quadros de uma sessão
+       ------------------------- */
+    static final class Receiver {
+        final SocketChannel channel;
+        final ByteBuffer pending = ByteBuffer.allocateDirect(StateSync.MAX_FRAME_SIZE + GameProtocol.HEADER_SIZE);
+        boolean resync; // perdeu um quadro: descarta deltas até o próximo keyframe
+        volatile boolean closed; // espectador desconectou (marcado pela thread de IO)
+
+        Receiver(SocketChannel channel) {
+            this.channel = channel;
+            pending.flip(); // começa vazio
+        }
+
+        /**
+         * Envia o quadro compartilhado sem copiar; só copia o que o socket não
+         * aceitou. Se o quadro anterior ainda não saiu, este se perde e o
+         * receptor espera o próximo keyframe periódico (KEYFRAME_INTERVAL):
+         * a recuperação é só dele, os outros da sessão seguem com deltas.
+         */
+        void deliver(ByteBuffer frame, boolean keyframe) throws IOException {
+            if (pending.hasRemaining()) channel.write(pending);
+            if (pending.hasRemaining() || (resync && !keyframe)) {
+                resync = true;
+                return;
+            }
+            resync = false;
+            ByteBuffer view = frame.duplicate();
+            channel.write(view);
+            if (view.hasRemaining()) {
+                pending.clear();
+                pending.put(view);
+                pending.flip();
+            }
+        }
+
+        void close() {
+            closeQuietly(channel);
+        }
+    }
+
+    /* -------------------------
+       SESSÃO: uma partida ligada a uma conexão
+       ------------------------- */
+    static final class Session {
+        final int id;
+        final SocketChannel channel;
+        final GameEngine engine = new GameEngine();
+        final StateSync.Encoder encoder = new StateSync.Encoder();
+        final ByteBuffer frame = ByteBuffer.allocateDirect(StateSync.MAX_FRAME_SIZE + GameProtocol.HEADER_SIZE);
+        final Receiver player;
+        final List<Receiver> spectators = new ArrayList<>(); // só a thread do shard
+        volatile boolean closed;
+        boolean keyframeRequested;
+        int tick;
+        private final PieceGenerator generator;
+
+        // Fila SPSC de comandos: a thread de IO escreve, a do shard lê
+        private final byte[] inputs = new byte[64];
+        private final AtomicLong inHead = new AtomicLong(); // próximo a ler
+        private final AtomicLong inTail = new AtomicLong(); // próximo a escrever
+
+        Session(int id, SocketChannel channel, long seed) {
+            this.id = id;
+            this.channel = channel;
+            this.player = new Receiver(channel);
+            this.generator = PieceGenerator.create(PieceGenerator.Kind.BAG, seed);
+            engine.reset(generator.split());
+        }
+
+        void offerInput(byte b) {
+            long tail = inTail.get();
+            if (tail - inHead.get() >= inputs.length) return; // cliente rápido demais: descarta
+            inputs[(int) (tail & (inputs.length - 1))] = b;
+            inTail.lazySet(tail + 1);
+        }
+
+        // Aplica os comandos pendentes
+        void drainInputs() {
+            long head = inHead.get();
+            long tail = inTail.get();
+            if (head == tail) return;
+            for (; head < tail; head++) {
+                byte b = inputs[(int) (head & (inputs.length - 1))];
+                if (b == GameProtocol.IN_RESTART) {
+                    if (engine.isGameOver()) engine.reset(generator.split());
+                } else {
+                    GameProtocol.applyInput(engine, b);
+                }
+            }
+            inHead.lazySet(tail);
+        }
+    }
+
+    /* -------------------------
+       SHARD: conjunto de sessões avançadas pela mesma tarefa
+       ------------------------- */
+    final class Shard {
+        final ConcurrentLinkedQueue<Session> incoming = new ConcurrentLinkedQueue<>();
+        final ConcurrentLinkedQueue<SpectateRequest> incomingSpectators = new ConcurrentLinkedQueue<>();
+        // Produtor: a tarefa de tick do shard (nunca roda duas vezes ao mesmo tempo)
+        final GameEvents events = new GameEvents(1 << 14);
+        private final List<Session> sessions = new ArrayList<>();
+        private long expectedNanos = 0;
+        // Histograma de atraso do tick em passos de 100us (último balde = 25ms ou mais)
+        // e maior atraso do intervalo; o relatório lê e zera os dois sob o mesmo lock
+        final long[] jitterBuckets = new long[251];
+        long maxJitterNanos;
+        // Totais desde o início: só a thread do shard escreve, o relatório nunca zera
+        volatile long ticks;
+        volatile long busyNanos;
+
+        // Tarefa agendada: uma exceção que escapasse cancelaria os ticks do shard inteiro
+        void tick() {
+            try {
+                tickSessions();
+            } catch (Throwable t) {
+                System.err.println("[server] erro no tick do shard; continua no próximo: " + t);
+                t.printStackTrace();
+            }
+        }
+
+        private void tickSessions() {
+            long start = System.nanoTime();
+            if (expectedNanos == 0) expectedNanos = start;
+            long late = Math.max(0, start - expectedNanos);
+            expectedNanos += TICK_MS * 1_000_000L;
+            if (late > TICK_MS * 1_000_000L * 4) expectedNanos = start + TICK_MS * 1_000_000L; // atraso grande: ressincroniza
+            synchronized (jitterBuckets) {
+                jitterBuckets[(int) Math.min(jitterBuckets.length - 1, late / 100_000)]++;
+                if (late > maxJitterNanos) maxJitterNanos = late;
+            }
+
+            Session s;
+            while ((s = incoming.poll()) != null) {
+                s.engine.setEvents(events, s.id);
+                sessions.add(s);
+                announce(s);
+            }
+            // Depois das sessões novas: a thread de IO enfileira a sessão antes de quem a assiste
+            SpectateRequest req;
+            while ((req = incomingSpectators.poll()) != null) {
+                Session target = sessionsById.get(req.sessionId);
+                if (target == null || target.closed || req.receiver.closed) {
+                    req.receiver.close();
+                    continue;
+                }
+                target.spectators.add(req.receiver);
+                target.keyframeRequested = true;
+                spectatorCount.incrementAndGet();
+            }
+
+            for (int i = sessions.size() - 1; i >= 0; i--) {
+                Session session = sessions.get(i);
+                if (session.closed) {
+                    close(session);
+                    sessions.remove(i);
+                    continue;
+                }
+                try {
+                    session.drainInputs();
+                    session.engine.tick(TICK_MS);
+                    session.tick++;
+                    send(session);
+                } catch (RuntimeException e) {
+                    // Só a sessão com problema cai; as outras do shard seguem
+                    System.err.println("[server] sessão " + session.id + " encerrada por erro: " + e);
+                    e.printStackTrace();
+                    close(session);
+                    sessions.remove(i);
+                }
+            }
+            ticks++;
+            busyNanos += System.nanoTime() - start;
+        }
+
+        // Conta ao jogador o id da sessão, antes do primeiro quadro
+        private void announce(Session session) {
+            ByteBuffer msg = ByteBuffer.allocate(GameProtocol.HEADER_SIZE + 4);
+            GameProtocol.writeSession(msg, session.id);
+            msg.flip();
+            try {
+                session.player.deliver(msg, true);
+            } catch (IOException e) {
+                session.closed = true;
+            }
+        }
+
+        // Codifica o quadro uma vez e entrega ao jogador e aos espectadores
+        private void send(Session session) {
+            if (session.keyframeRequested) {
+                session.keyframeRequested = false;
+                session.encoder.requestKeyframe();
+            }
+            ByteBuffer frame = session.frame;
+            frame.clear();
+            if (!GameProtocol.writeSync(frame, session.encoder, session.engine, session.tick)) return;
+            frame.flip();
+            boolean keyframe = frame.get(GameProtocol.HEADER_SIZE) == StateSync.KEYFRAME;
+
+            // Quem perde um quadro não força keyframe na sessão: com um cliente
+            // lento, todos receberiam keyframes a cada tick
+            try {
+                session.player.deliver(frame, keyframe);
+            } catch (IOException e) {
+                session.closed = true;
+            }
+            List<Receiver> spectators = session.spectators;
+            for (int i = spectators.size() - 1; i >= 0; i--) {
+                Receiver r = spectators.get(i);
+                boolean alive = !r.closed;
+                if (alive) {
+                    try {
+                        r.deliver(frame, keyframe);
+                    } catch (IOException e) {
+                        alive = false;
+                    }
+                }
+                if (!alive) {
+                    r.close();
+                    spectators.remove(i);
+                    spectatorCount.decrementAndGet();
+                }
+            }
+        }
+
+        private void close(Session session) {
+            session.player.close();
+            for (Receiver r : session.spectators) {
+                r.close();
+                spectatorCount.decrementAndGet();
+            }
+            session.spectators.clear();
+            sessionsById.remove(session.id);
+            sessionCount.decrementAndGet();
+        }
+
+        int size() {
+            return sessions.size();
+        }
+    }
+
+    /* -------------------------
+       MÉTRICAS: contadores alimentados pela thread de eventos
+       ------------------------- */
+    static final class EventCounters implements GameEvents.Handler {
+        volatile long pieces, lines, tetrises, levelUps, gameOvers; // um só escritor
+
+        @Override
+        public void onEvent(GameEvents.Event e) {
+            switch (e.type) {
+                case GameEvents.PIECE_LOCKED -> pieces++;
+                case GameEvents.LINES_CLEARED -> {
+                    lines++;
+                    if (e.b == 4) tetrises++;
+                }
+                case GameEvents.LEVEL_UP -> levelUps++;
+                case GameEvents.GAME_OVER -> gameOvers++;
+                default -> { }
+            }
+        }
+    }
+
+    /** Resumo periódico: sessões, sessões por núcleo ocupado, atraso dos ticks e eventos de jogo. */
+    String report(long elapsedNanos) {
+        long[] merged = new long[shards[0].jitterBuckets.length];
+        long ticks = 0, busy = 0, max = 0;
+        for (int s = 0; s < shards.length; s++) {
+            Shard sh = shards[s];
+            synchronized (sh.jitterBuckets) {
+                for (int i = 0; i < merged.length; i++) {
+                    merged[i] += sh.jitterBuckets[i];
+                    sh.jitterBuckets[i] = 0;
+                }
+                max = Math.max(max, sh.maxJitterNanos);
+                sh.maxJitterNanos = 0;
+            }
+            long shardTicks = sh.ticks, shardBusy = sh.busyNanos;
+            ticks += shardTicks - lastTicks[s];
+            busy += shardBusy - lastBusyNanos[s];
+            lastTicks[s] = shardTicks;
+            lastBusyNanos[s] = shardBusy;
+        }
+        double coresBusy = elapsedNanos > 0 ? (double) busy / elapsedNanos : 0;
+        int sessions = getSessionCount();
+        long pieces = counters.pieces, lines = counters.lines;
+        double secs = Math.max(1, elapsedNanos) / 1e9;
+        String game = String.format(" pieces/s=%.0f lines/s=%.0f tetrises=%d gameOvers=%d eventsLost=%d",
+            (pieces - lastPieces) / secs, (lines - lastLines) / secs, counters.tetrises, counters.gameOvers,
+            eventConsumer != null ? eventConsumer.lost() : 0);
+        lastPieces = pieces;
+        lastLines = lines;
+        return String.format(
+            "sessions=%d spectators=%d ticks/s=%.0f coresBusy=%.2f sessions/core=%.0f jitter p50=%.1fms p99=%.1fms max=%.1fms",
+            sessions,
+            spectatorCount.get(),
+            ticks * 1e9 / Math.max(1, elapsedNanos),
+            coresBusy,
+            coresBusy > 0 ? sessions / coresBusy : 0,
+            percentile(merged, 0.50) / 10.0,
+            percentile(merged, 0.99) / 10.0,
+            max / 1e6
+        ) + game;
+    }
+
+    private static int percentile(long[] buckets, double p) {
+        long total = 0;
+        for (long b : buckets) total += b;
+        if (total == 0) return 0;
+        long target = (long) Math.ceil(total * p);
+        long seen = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            seen += buckets[i];
+            if (seen >= target) return i;
+        }
+        return buckets.length - 1;
+    }
+
+    // Imprime o relatório a cada 5 segundos até o processo terminar
+    void reportForever() throws InterruptedException {
+        long last = System.nanoTime();
+        while (running) {
+            Thread.sleep(5000);
+            long now = System.nanoTime();
+            System.out.println("[server] " + report(now - last));
+            last = now;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7777;
+        int cores = Runtime.getRuntime().availableProcessors();
+        GameServer server = new GameServer(port, System.nanoTime(), cores);
+        int bound = server.start();
+        System.out.println("[server] porta " + bound + ", " + cores + " shards, tick " + TICK_MS + "ms, pid "
+            + ManagementFactory.getRuntimeMXBean().getPid());
+        server.reportForever();
+    }
+}
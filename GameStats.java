@@ -0,0 +1,118 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Estatísticas de uma partida, atualizadas pelo {@link GameEngine} a cada
+ * peça travada: peças por tipo, simples/duplas/triplas/tetris, altura
+ * máxima da pilha e duração. Só contadores inteiros, nada é alocado durante
+ * a partida.
+ *
+ * Vão junto no snapshot do engine: o início fica como relógio de parede
+ * (o dia da partida) e o tempo já jogado, e ao restaurar o relógio
+ * monotônico é recalculado, então o tempo com o quiosque desligado não conta.
+ */
+public class GameStats {
+    // Tamanho gravado por saveState
+    static final int STATE_SIZE = Tetromino.COUNT * 4 + 6 * 4 + 8 + 8 + 1;
+
+    final int[] piecesByType = new int[Tetromino.COUNT];
+    int pieces;
+    int singles, doubles, triples, tetrises;
+    int maxHeight;
+    long startedAtMillis; // relógio de parede, para o dia da partida
+    long startNanos;
+    long endNanos;        // 0 enquanto a partida não termina
+
+    // Preenchidos no fim (cópia do engine)
+    int score, level, lines;
+
+    void reset() {
+        java.util.Arrays.fill(piecesByType, 0);
+        pieces = 0;
+        singles = doubles = triples = tetrises = 0;
+        maxHeight = 0;
+        startedAtMillis = System.currentTimeMillis();
+        startNanos = System.nanoTime();
+        endNanos = 0;
+        score = level = lines = 0;
+    }
+
+    void pieceLocked(Tetromino piece, int cleared, int height) {
+        piecesByType[piece.ordinal()]++;
+        pieces++;
+        switch (cleared) {
+            case 0 -> { }
+            case 1 -> singles++;
+            case 2 -> doubles++;
+            case 3 -> triples++;
+            default -> tetrises++;
+        }
+        // altura medida antes da limpeza, que é o pico real da pilha
+        if (height > maxHeight) maxHeight = height;
+    }
+
+    void finish(int score, int level, int lines) {
+        if (endNanos == 0) endNanos = System.nanoTime();
+        this.score = score;
+        this.level = level;
+        this.lines = lines;
+    }
+
+    long durationMillis() {
+        long end = endNanos != 0 ? endNanos : System.nanoTime();
+        return (end - startNanos) / 1_000_000L;
+    }
+
+    double piecesPerSecond() {
+        long ms = durationMillis();
+        return ms > 0 ? pieces * 1000.0 / ms : 0;
+    }
+
+    void saveState(ByteBuffer out) {
+        for (int n : piecesByType) out.putInt(n);
+        out.putInt(pieces);
+        out.putInt(singles);
+        out.putInt(doubles);
+        out.putInt(triples);
+        out.putInt(tetrises);
+        out.putInt(maxHeight);
+        out.putLong(startedAtMillis);
+        out.putLong(durationMillis());
+        out.put((byte) (endNanos != 0 ? 1 : 0));
+    }
+
+    void loadState(ByteBuffer in) {
+        for (int i = 0; i < piecesByType.length; i++) piecesByType[i] = in.getInt();
+        pieces = in.getInt();
+        singles = in.getInt();
+        doubles = in.getInt();
+        triples = in.getInt();
+        tetrises = in.getInt();
+        maxHeight = in.getInt();
+        startedAtMillis = in.getLong();
+        long playedMillis = in.getLong();
+        boolean finished = in.get() != 0;
+        // Continua contando a partir do tempo já jogado, no relógio deste processo
+        startNanos = System.nanoTime() - playedMillis * 1_000_000L;
+        endNanos = finished ? startNanos + playedMillis * 1_000_000L : 0;
+        score = level = lines = 0; // o engine preenche no fim (ou ao restaurar uma partida encerrada)
+    }
+
+    /** Cópia independente, para entregar a outra thread. */
+    GameStats copy() {
+        GameStats c = new GameStats();
+        System.arraycopy(piecesByType, 0, c.piecesByType, 0, piecesByType.length);
+        c.pieces = pieces;
+        c.singles = singles;
+        c.doubles = doubles;
+        c.triples = triples;
+        c.tetrises = tetrises;
+        c.maxHeight = maxHeight;
+        c.startedAtMillis = startedAtMillis;
+        c.startNanos = startNanos;
+        c.endNanos = endNanos;
+        c.score = score;
+        c.level = level;
+        c.lines = lines;
+        return c;
+    }
+}
@@ -0,0 +1,677 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Exporta e importa a tabela highscores em CSV ou NDJSON, para juntar os
+ * rankings de vários quiosques num banco só.
+ *
+ * Os dois lados são em fluxo: a exportação lê o ResultSet e escreve linha
+ * a linha; a importação lê uma linha por vez e grava em lotes de prepared
+ * statements, com um commit a cada {@code commitEvery} linhas. A memória
+ * não depende do tamanho do arquivo.
+ *
+ * A importação passa por uma tabela temporária com chave única
+ * (player_name, score, date_achieved): repetições dentro do arquivo somem
+ * na carga, e as que já existem no banco são apagadas da tabela temporária
+ * com um join. Só então os índices de highscores são removidos, as linhas
+ * novas entram num INSERT ... SELECT e os índices são recriados: um
+ * rebuild em vez de milhões de atualizações de índice. A data é comparada
+ * como texto (o formato do CURRENT_TIMESTAMP do SQLite, "AAAA-MM-DD HH:MM:SS").
+ *
+ * Colunas nos dois formatos: player_name, score, date_achieved. No CSV a
+ * primeira linha pode ser o cabeçalho (em qualquer ordem, sem diferença de
+ * maiúsculas nem espaços em volta); um cabeçalho sem alguma dessas colunas
+ * cancela a importação. No NDJSON cada linha é um objeto com esses campos.
+ * Um BOM UTF-8 no começo do arquivo (o Excel grava) é ignorado.
+ *
+ * Atenção: saveScore continua mantendo só os 5 melhores do quiosque; o
+ * banco que recebe as importações é o central, onde ninguém joga.
+ *
+ * Uso: java -cp '.:sqlite-jdbc.jar' Tetris --export-scores arquivo [--format csv|ndjson]
+ *      java -cp '.:sqlite-jdbc.jar' Tetris --import-scores arquivo [--format csv|ndjson] [--batch N] [--commit N]
+ *      java Tetris --check-score-parsers   (casos de borda dos leitores, sem banco)
+ */
+public final class HighscoreTransfer {
+    static final int DEFAULT_BATCH = 10_000;
+    static final int DEFAULT_COMMIT = 500_000;
+    private static final int MAX_REPORTED_ERRORS = 10;
+    private static final char BOM = '\uFEFF';
+    private static final List<String> COLUMNS = List.of("player_name", "score", "date_achieved");
+
+    enum Format {
+        CSV, NDJSON;
+
+        static Format parse(String s) {
+            return switch (s.toLowerCase()) {
+                case "csv" -> CSV;
+                case "ndjson", "jsonl", "json" -> NDJSON;
+                default -> throw new IllegalArgumentException("Formato desconhecido: " + s);
+            };
+        }
+
+        // Pela extensão do arquivo; CSV quando não dá para saber
+        static Format of(Path file) {
+            String name = file.getFileName().toString().toLowerCase();
+            return name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json") ? NDJSON : CSV;
+        }
+    }
+
+    private HighscoreTransfer() {
+    }
+
+    /* -------------------------
+       EXPORTAÇÃO
+       ------------------------- */
+
+    /** Grava todos os highscores em {@code file} (escrita atômica via arquivo temporário); retorna quantas linhas. */
+    static long exportScores(Path file, Format format) throws Exception {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        long rows = 0;
+        try (Connection conn = DatabaseManager.getConnection();
+             Statement stmt = conn.createStatement();
+             BufferedWriter out = Files.newBufferedWriter(tmp, StandardCharsets.UTF_8)) {
+            stmt.setFetchSize(DEFAULT_BATCH);
+            try (ResultSet rs = stmt.executeQuery("SELECT player_name, score, date_achieved FROM highscores ORDER BY id")) {
+                if (format == Format.CSV) out.write("player_name,score,date_achieved\n");
+                while (rs.next()) {
+                    String name = rs.getString(1);
+                    long score = rs.getLong(2);
+                    String date = rs.getString(3);
+                    if (format == Format.CSV) {
+                        writeCsvField(out, name);
+                        out.write(',');
+                        out.write(Long.toString(score));
+                        out.write(',');
+                        writeCsvField(out, date != null ? date : "");
+                    } else {
+                        out.write("{\"player_name\":");
+                        writeJsonString(out, name);
+                        out.write(",\"score\":");
+                        out.write(Long.toString(score));
+                        out.write(",\"date_achieved\":");
+                        if (date != null) {
+                            writeJsonString(out, date);
+                        } else {
+                            out.write("null");
+                        }
+                        out.write('}');
+                    }
+                    out.write('\n');
+                    rows++;
+                }
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return rows;
+    }
+
+    private static void writeCsvField(Writer out, String s) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < s.length() && !quote; i++) {
+            char c = s.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(s);
+            return;
+        }
+        out.write('"');
+        out.write(s.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private static void writeJsonString(Writer out, String s) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> out.write("\\\"");
+                case '\\' -> out.write("\\\\");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                case '\t' -> out.write("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+                }
+            }
+        }
+        out.write('"');
+    }
+
+    /* -------------------------
+       LEITURA EM FLUXO: uma linha do arquivo por vez
+       ------------------------- */
+
+    // Campos da linha atual; null = ausente
+    static final class Row {
+        String name, score, date;
+        long line; // linha do arquivo (para as mensagens de erro)
+    }
+
+    interface RowSource {
+        /** Lê a próxima linha em {@code row}; false no fim do arquivo. */
+        boolean next(Row row) throws IOException;
+    }
+
+    /** CSV (RFC 4180): aspas duplas, "" como escape, quebras de linha dentro de aspas. */
+    static final class CsvRows implements RowSource {
+        private final Reader in;
+        private final StringBuilder field = new StringBuilder();
+        private final List<String> fields = new ArrayList<>();
+        private int nameCol = 0, scoreCol = 1, dateCol = 2;
+        private boolean first = true;
+        private boolean started;
+        private long line = 1;
+        private int pending = -2; // caractere lido a mais (-2 = nenhum)
+
+        CsvRows(Reader in) {
+            this.in = in;
+        }
+
+        private int read() throws IOException {
+            if (pending != -2) {
+                int c = pending;
+                pending = -2;
+                return c;
+            }
+            int c = in.read();
+            if (!started) {
+                started = true;
+                if (c == BOM) c = in.read();
+            }
+            return c;
+        }
+
+        // Lê um registro inteiro em fields; false no fim do arquivo
+        private boolean record() throws IOException {
+            fields.clear();
+            field.setLength(0);
+            int c = read();
+            if (c == -1) return false;
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) throw new IOException("Aspas sem fechar na linha " + line);
+                    if (c == '"') {
+                        int d = read();
+                        if (d == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            pending = d;
+                        }
+                    } else {
+                        if (c == '\n') line++;
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.length() == 0) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == -1) {
+                    break;
+                } else if (c == '\r') {
+                    int d = read();
+                    if (d != '\n') pending = d;
+                    break;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+            fields.add(field.toString());
+            line++;
+            return true;
+        }
+
+        @Override
+        public boolean next(Row row) throws IOException {
+            while (true) {
+                long start = line;
+                if (!record()) return false;
+                if (fields.size() == 1 && fields.get(0).isEmpty()) continue; // linha em branco
+                if (first) {
+                    first = false;
+                    if (header(start)) continue;
+                }
+                row.line = start;
+                row.name = get(nameCol);
+                row.score = get(scoreCol);
+                row.date = get(dateCol);
+                return true;
+            }
+        }
+
+        // Primeira linha: é cabeçalho se traz um nome de coluna ou se a segunda coluna não é número.
+        // Mapeia as colunas pelo nome; falta de alguma cancela tudo, em vez de rejeitar linha a linha
+        private boolean header(long start) throws IOException {
+            List<String> names = new ArrayList<>(fields.size());
+            for (String f : fields) names.add(f.trim().toLowerCase(Locale.ROOT));
+            boolean named = false;
+            for (String col : COLUMNS) named |= names.contains(col);
+            if (!named && fields.size() > 1 && isNumber(fields.get(1).trim())) return false;
+
+            List<String> missing = new ArrayList<>();
+            for (String col : COLUMNS) {
+                if (!names.contains(col)) missing.add(col);
+            }
+            if (!missing.isEmpty()) {
+                throw new IOException("Cabeçalho do CSV (linha " + start + ") sem a coluna " + String.join(", ", missing)
+                    + "; esperado " + String.join(",", COLUMNS) + ", encontrado " + String.join(",", names));
+            }
+            nameCol = names.indexOf("player_name");
+            scoreCol = names.indexOf("score");
+            dateCol = names.indexOf("date_achieved");
+            return true;
+        }
+
+        private static boolean isNumber(String s) {
+            if (s.isEmpty()) return false;
+            for (int i = 0; i < s.length(); i++) {
+                char c = s.charAt(i);
+                if ((c < '0' || c > '9') && !(i == 0 && c == '-')) return false;
+            }
+            return true;
+        }
+
+        private String get(int col) {
+            return col >= 0 && col < fields.size() ? fields.get(col) : null;
+        }
+    }
+
+    /** NDJSON: um objeto plano por linha (strings, números ou null). */
+    static final class NdjsonRows implements RowSource {
+        private final BufferedReader in;
+        private final StringBuilder value = new StringBuilder();
+        private long line;
+        private String text;
+        private int pos;
+
+        NdjsonRows(BufferedReader in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean next(Row row) throws IOException {
+            while ((text = in.readLine()) != null) {
+                line++;
+                if (line == 1 && !text.isEmpty() && text.charAt(0) == BOM) text = text.substring(1);
+                if (text.isBlank()) continue;
+                row.line = line;
+                row.name = row.score = row.date = null;
+                pos = 0;
+                try {
+                    parseObject(row);
+                } catch (IllegalArgumentException e) {
+                    // Linha inválida: chega como linha sem campos e é rejeitada
+                    row.name = row.score = row.date = null;
+                }
+                return true;
+            }
+            return false;
+        }
+
+        private void parseObject(Row row) {
+            skipSpaces();
+            expect('{');
+            skipSpaces();
+            if (peek() == '}') return;
+            while (true) {
+                skipSpaces();
+                String key = parseString();
+                skipSpaces();
+                expect(':');
+                skipSpaces();
+                String v = parseValue();
+                switch (key) {
+                    case "player_name" -> row.name = v;
+                    case "score" -> row.score = v;
+                    case "date_achieved" -> row.date = v;
+                    default -> { }
+                }
+                skipSpaces();
+                if (peek() == ',') {
+                    pos++;
+                    continue;
+                }
+                expect('}');
+                return;
+            }
+        }
+
+        private String parseValue() {
+            char c = peek();
+            if (c == '"') return parseString();
+            int start = pos;
+            while (pos < text.length() && ",} \t".indexOf(text.charAt(pos)) < 0) pos++;
+            String literal = text.substring(start, pos);
+            if (literal.isEmpty()) throw new IllegalArgumentException("valor vazio");
+            return literal.equals("null") ? null : literal;
+        }
+
+        private String parseString() {
+            expect('"');
+            value.setLength(0);
+            while (true) {
+                if (pos >= text.length()) throw new IllegalArgumentException("string sem fechar");
+                char c = text.charAt(pos++);
+                if (c == '"') return value.toString();
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) throw new IllegalArgumentException("escape incompleto");
+                char e = text.charAt(pos++);
+                switch (e) {
+                    case 'n' -> value.append('\n');
+                    case 'r' -> value.append('\r');
+                    case 't' -> value.append('\t');
+                    case 'b' -> value.append('\b');
+                    case 'f' -> value.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) throw new IllegalArgumentException("escape incompleto");
+                        value.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> value.append(e); // \" \\ \/
+                }
+            }
+        }
+
+        private char peek() {
+            if (pos >= text.length()) throw new IllegalArgumentException("fim da linha inesperado");
+            return text.charAt(pos);
+        }
+
+        private void expect(char c) {
+            if (peek() != c) throw new IllegalArgumentException("esperava '" + c + "'");
+            pos++;
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+    }
+
+    /* -------------------------
+       IMPORTAÇÃO
+       ------------------------- */
+
+    static final class Result {
+        long read, rejected, duplicates, inserted;
+        double loadSeconds, totalSeconds;
+    }
+
+    static Result importScores(Path file, Format format, int batchSize, int commitEvery) throws Exception {
+        Result result = new Result();
+        long start = System.nanoTime();
+        try (Connection conn = DatabaseManager.getConnection();
+             BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            conn.setAutoCommit(false);
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("DROP TABLE IF EXISTS temp.import_scores");
+                    stmt.execute("""
+                        CREATE TEMP TABLE import_scores (
+                            player_name TEXT NOT NULL,
+                            score INTEGER NOT NULL,
+                            date_achieved TEXT NOT NULL,
+                            UNIQUE (player_name, score, date_achieved)
+                        )
+                    """);
+                }
+                load(conn, format == Format.CSV ? new CsvRows(in) : new NdjsonRows(in), batchSize, commitEvery, result);
+                result.loadSeconds = (System.nanoTime() - start) / 1e9;
+                merge(conn, result);
+                conn.commit();
+            } catch (Exception e) {
+                conn.rollback();
+                throw e;
+            }
+        }
+        result.totalSeconds = (System.nanoTime() - start) / 1e9;
+        return result;
+    }
+
+    // Arquivo -> tabela temporária; repetições dentro do arquivo são ignoradas pela chave única
+    private static void load(Connection conn, RowSource rows, int batchSize, int commitEvery, Result result)
+            throws IOException, SQLException {
+        Row row = new Row();
+        int pending = 0;
+        long loaded = 0;
+        try (PreparedStatement ps = conn.prepareStatement(
+                "INSERT OR IGNORE INTO import_scores (player_name, score, date_achieved) VALUES (?, ?, ?)")) {
+            while (rows.next(row)) {
+                result.read++;
+                String name = row.name != null ? row.name.trim() : "";
+                String date = row.date != null ? row.date.trim() : "";
+                long score;
+                try {
+                    score = Long.parseLong(row.score != null ? row.score.trim() : "");
+                } catch (NumberFormatException e) {
+                    score = -1;
+                }
+                if (name.isEmpty() || date.isEmpty() || score < 0) {
+                    if (++result.rejected <= MAX_REPORTED_ERRORS) {
+                        System.err.println("Linha " + row.line + " ignorada: precisa de player_name, score e date_achieved");
+                    }
+                    continue;
+                }
+                ps.setString(1, name);
+                ps.setLong(2, score);
+                ps.setString(3, date);
+                ps.addBatch();
+                loaded++;
+                if (++pending == batchSize) {
+                    ps.executeBatch();
+                    pending = 0;
+                }
+                if (loaded % commitEvery == 0) {
+                    if (pending > 0) {
+                        ps.executeBatch();
+                        pending = 0;
+                    }
+                    conn.commit();
+                }
+            }
+            if (pending > 0) ps.executeBatch();
+        }
+        conn.commit();
+    }
+
+    // Tabela temporária -> highscores, sem as linhas que já existem, com os índices recriados no fim
+    private static void merge(Connection conn, Result result) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("""
+                DELETE FROM import_scores WHERE rowid IN (
+                    SELECT i.rowid FROM highscores h
+                    JOIN import_scores i ON i.player_name = h.player_name
+                                        AND i.score = h.score
+                                        AND i.date_achieved = h.date_achieved
+                )
+            """);
+
+            List<String> indexes = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT name, sql FROM sqlite_master WHERE type = 'index' AND tbl_name = 'highscores' AND sql IS NOT NULL")) {
+                while (rs.next()) {
+                    names.add(rs.getString(1));
+                    indexes.add(rs.getString(2));
+                }
+            }
+            for (String name : names) stmt.execute("DROP INDEX \"" + name.replace("\"", "\"\"") + "\"");
+            result.inserted = stmt.executeUpdate("""
+                INSERT INTO highscores (player_name, score, date_achieved)
+                SELECT player_name, score, date_achieved FROM import_scores ORDER BY date_achieved
+            """);
+            for (String sql : indexes) stmt.execute(sql);
+            stmt.execute("DROP TABLE temp.import_scores");
+            result.duplicates = result.read - result.rejected - result.inserted;
+        }
+    }
+
+    /* -------------------------
+       VERIFICAÇÃO DOS LEITORES: java Tetris --check-score-parsers
+       ------------------------- */
+
+    // Lê tudo e devolve "linha|nome|score|data" por linha, ou "erro: mensagem"
+    private static List<String> readAll(Format format, String text) {
+        List<String> out = new ArrayList<>();
+        BufferedReader in = new BufferedReader(new java.io.StringReader(text));
+        RowSource rows = format == Format.CSV ? new CsvRows(in) : new NdjsonRows(in);
+        Row row = new Row();
+        try {
+            while (rows.next(row)) out.add(row.line + "|" + row.name + "|" + row.score + "|" + row.date);
+        } catch (IOException e) {
+            out.add("erro: " + e.getMessage());
+        }
+        return out;
+    }
+
+    private static boolean check(String name, Format format, String text, String... expected) {
+        List<String> got = readAll(format, text);
+        boolean ok = got.size() == expected.length;
+        for (int i = 0; ok && i < expected.length; i++) {
+            String e = expected[i];
+            ok = e.endsWith("*") ? got.get(i).startsWith(e.substring(0, e.length() - 1)) : got.get(i).equals(e);
+        }
+        System.out.println((ok ? "ok      " : "FALHOU  ") + name);
+        if (!ok) {
+            System.out.println("  esperado: " + List.of(expected));
+            System.out.println("  lido:     " + got);
+        }
+        return ok;
+    }
+
+    static void checkParsers(String[] args) {
+        boolean ok = true;
+        ok &= check("csv: cabeçalho em outra ordem, CRLF, aspas, linha em branco, quebra dentro de aspas",
+            Format.CSV,
+            "date_achieved,player_name,score\r\n"
+                + "2024-01-01 10:00:00,\"Ana, \"\"A\"\"\",100\r\n"
+                + "\r\n"
+                + "2024-01-02 10:00:00,\"duas\nlinhas\",200\n"
+                + "2024-01-03 00:00:00,bob,abc\n"
+                + "2024-01-04 00:00:00,carl,5",
+            "2|Ana, \"A\"|100|2024-01-01 10:00:00",
+            "4|duas\nlinhas|200|2024-01-02 10:00:00",
+            "6|bob|abc|2024-01-03 00:00:00",
+            "7|carl|5|2024-01-04 00:00:00");
+        ok &= check("csv: BOM do Excel e cabeçalho com espaços e maiúsculas",
+            Format.CSV,
+            BOM + " Player_Name , SCORE ,date_achieved\r\nana,10,2024-01-01 00:00:00\r\n",
+            "2|ana|10|2024-01-01 00:00:00");
+        ok &= check("csv: sem cabeçalho, ordem padrão",
+            Format.CSV,
+            BOM + "ana,10,2024-01-01 00:00:00\nbia,-3,2024-01-02 00:00:00\n",
+            "1|ana|10|2024-01-01 00:00:00",
+            "2|bia|-3|2024-01-02 00:00:00");
+        ok &= check("csv: cabeçalho sem coluna obrigatória cancela",
+            Format.CSV,
+            "player_name,score,data\nana,10,2024-01-01\n",
+            "erro: Cabeçalho do CSV (linha 1) sem a coluna date_achieved*");
+        ok &= check("csv: cabeçalho com nomes desconhecidos cancela",
+            Format.CSV,
+            "name,points,date\nana,10,2024-01-01\n",
+            "erro: Cabeçalho do CSV (linha 1) sem a coluna player_name, score, date_achieved*");
+        ok &= check("csv: aspas sem fechar",
+            Format.CSV,
+            "ana,10,\"2024-01-01\n",
+            "erro: Aspas sem fechar*");
+        ok &= check("ndjson: escapes, ordem e espaços livres, campo extra, null, linha inválida",
+            Format.NDJSON,
+            "{\"player_name\":\"Zé \\\"q\\\" \\u00e9\",\"score\":42,\"date_achieved\":\"2024-05-05 01:02:03\"}\n"
+                + "\n"
+                + "{ \"score\" : 7 , \"player_name\" : \"x\", \"extra\": null, \"date_achieved\": null }\n"
+                + "{quebrado\n",
+            "1|Zé \"q\" é|42|2024-05-05 01:02:03",
+            "3|x|7|null",
+            "4|null|null|null");
+        ok &= check("ndjson: BOM na primeira linha",
+            Format.NDJSON,
+            BOM + "{\"player_name\":\"ana\",\"score\":1,\"date_achieved\":\"2024-01-01 00:00:00\"}\n",
+            "1|ana|1|2024-01-01 00:00:00");
+        System.out.println(ok ? "Todos os casos passaram." : "Há casos falhando.");
+        if (!ok) System.exit(1);
+    }
+
+    /* -------------------------
+       LINHA DE COMANDO
+       ------------------------- */
+
+    static void exportCommand(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Uso: --export-scores arquivo [--format csv|ndjson]");
+            return;
+        }
+        Path file = Path.of(args[0]);
+        Format format = Format.of(file);
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--format" -> format = Format.parse(args[++i]);
+                default -> System.err.println("Argumento ignorado: " + args[i]);
+            }
+        }
+        long start = System.nanoTime();
+        long rows = exportScores(file, format);
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "%d linhas exportadas em %.2fs (%.0f linhas/s) -> %s%n",
+            rows, secs, rows / Math.max(secs, 1e-9), file);
+    }
+
+    static void importCommand(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Uso: --import-scores arquivo [--format csv|ndjson] [--batch N] [--commit N]");
+            return;
+        }
+        Path file = Path.of(args[0]);
+        Format format = Format.of(file);
+        int batch = DEFAULT_BATCH;
+        int commit = DEFAULT_COMMIT;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--format" -> format = Format.parse(args[++i]);
+                case "--batch" -> batch = Math.max(1, Integer.parseInt(args[++i]));
+                case "--commit" -> commit = Math.max(1, Integer.parseInt(args[++i]));
+                default -> System.err.println("Argumento ignorado: " + args[i]);
+            }
+        }
+        Result r;
+        try {
+            r = importScores(file, format, batch, commit);
+        } catch (IOException | SQLException e) {
+            // Arquivo ilegível, cabeçalho errado, driver ausente ou erro de SQL. Os lotes já
+            // confirmados só foram para a tabela temporária, que some com a conexão;
+            // highscores só muda no commit final
+            System.err.println("Importação cancelada, rollback feito (highscores não foi alterada; "
+                + "as linhas já carregadas na tabela temporária foram descartadas): " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        System.out.printf(Locale.ROOT,
+            "%d linhas lidas: %d novas, %d repetidas, %d inválidas em %.2fs (%.0f linhas/s; carga %.0f linhas/s)%n",
+            r.read, r.inserted, r.duplicates, r.rejected, r.totalSeconds,
+            r.read / Math.max(r.totalSeconds, 1e-9), r.read / Math.max(r.loadSeconds, 1e-9));
+    }
+}
@@ -0,0 +1,237 @@
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cliente de carga: abre milhares de conexões com o {@link GameServer} e
+ * joga com clientes simples (movimentos aleatórios e hard drop periódico).
+ * Sem host, sobe um servidor no mesmo processo para medir localmente.
+ * Com -Dtetris.load.spectators=M, abre também M espectadores distribuídos
+ * entre as sessões das primeiras conexões. Os jogadores mandam um primeiro
+ * comando ao conectar e os espectadores só conectam depois que o servidor
+ * informou o id dessas sessões (MSG_SESSION).
+ *
+ * Uso: java Tetris --load N [host porta]
+ */
+public class LoadGenerator {
+    private static final int INPUT_INTERVAL_MS = 50;
+    private static final int SPECTATED_SESSIONS = 10;
+    private static final long SESSION_ID_TIMEOUT_MS = 10_000;
+
+    private final LoadClient[] clients;
+    private final Selector selector;
+    private long frames;
+    private long bytes;
+
+    // Estado de cada conexão do lado do cliente
+    private static final class LoadClient {
+        final SocketChannel channel;
+        final SplitMix64 rng;
+        final ByteBuffer in = ByteBuffer.allocate(1024);
+        final ByteBuffer out = ByteBuffer.allocate(8);
+        final StateSync.Decoder state = new StateSync.Decoder();
+        final boolean spectator;
+        int sessionId = -1; // informado pelo servidor (só jogadores)
+        int actions;
+
+        LoadClient(SocketChannel channel, long seed, boolean spectator) {
+            this.channel = channel;
+            this.rng = new SplitMix64(seed);
+            this.spectator = spectator;
+        }
+
+        // Próximo comando: algumas jogadas aleatórias e depois um hard drop
+        byte nextInput() {
+            if (state.isGameOver()) return GameProtocol.IN_RESTART;
+            if (++actions % 8 == 0) return GameProtocol.IN_HARD_DROP;
+            return switch (rng.nextInt(3)) {
+                case 0 -> GameProtocol.IN_LEFT;
+                case 1 -> GameProtocol.IN_RIGHT;
+                default -> GameProtocol.IN_ROTATE;
+            };
+        }
+    }
+
+    public LoadGenerator(String host, int port, int count, int spectators, long seed) throws IOException {
+        if (spectators > 0 && count == 0) {
+            throw new IllegalArgumentException("espectadores precisam de pelo menos um jogador para assistir");
+        }
+        selector = Selector.open();
+        clients = new LoadClient[count + spectators];
+        InetSocketAddress addr = new InetSocketAddress(host, port);
+        for (int i = 0; i < count; i++) {
+            // O servidor só cria a partida no primeiro comando; IN_RESTART não faz nada durante o jogo
+            ByteBuffer hello = ByteBuffer.allocate(1).put(GameProtocol.IN_RESTART);
+            clients[i] = connect(addr, PieceGenerator.seedFor(seed, i), false, hello);
+        }
+        if (spectators == 0) return;
+
+        // Handshake: IN_SPECTATE + id da sessão, com os ids que o servidor informou às primeiras conexões
+        int[] targets = awaitSessionIds(Math.min(count, SPECTATED_SESSIONS));
+        for (int i = count; i < clients.length; i++) {
+            ByteBuffer hello = ByteBuffer.allocate(5).put(GameProtocol.IN_SPECTATE).putInt(targets[(i - count) % targets.length]);
+            clients[i] = connect(addr, PieceGenerator.seedFor(seed, i), true, hello);
+        }
+    }
+
+    private LoadClient connect(InetSocketAddress addr, long seed, boolean spectator, ByteBuffer hello) throws IOException {
+        SocketChannel ch = SocketChannel.open(addr);
+        ch.configureBlocking(false);
+        ch.socket().setTcpNoDelay(true);
+        LoadClient client = new LoadClient(ch, seed, spectator);
+        hello.flip();
+        while (hello.hasRemaining()) ch.write(hello);
+        ch.register(selector, SelectionKey.OP_READ, client);
+        return client;
+    }
+
+    // Lê até as n primeiras conexões receberem o id da sessão (MSG_SESSION)
+    private int[] awaitSessionIds(int n) throws IOException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SESSION_ID_TIMEOUT_MS);
+        int known = 0;
+        while (true) {
+            while (known < n && clients[known].sessionId >= 0) known++;
+            if (known == n) break;
+            if (System.nanoTime() > deadline) {
+                throw new IOException("o servidor não informou o id de " + (n - known) + " sessões em "
+                    + SESSION_ID_TIMEOUT_MS + "ms");
+            }
+            selector.select(5);
+            Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+            while (it.hasNext()) {
+                SelectionKey key = it.next();
+                it.remove();
+                if (key.isValid() && key.isReadable()) read((LoadClient) key.attachment(), key);
+            }
+        }
+        int[] ids = new int[n];
+        for (int i = 0; i < n; i++) ids[i] = clients[i].sessionId;
+        return ids;
+    }
+
+    // Lê quadros de todas as conexões e manda comandos em intervalos fixos
+    public void run(long durationMs) throws IOException {
+        long end = System.currentTimeMillis() + durationMs;
+        long nextInput = System.currentTimeMillis();
+        long nextReport = System.currentTimeMillis() + 5000;
+        long lastFrames = 0, lastBytes = 0;
+        while (System.currentTimeMillis() < end) {
+            selector.select(5);
+            Iterator<SelectionKey> it = selector.selectedKeys().iterator();
+            while (it.hasNext()) {
+                SelectionKey key = it.next();
+                it.remove();
+                if (key.isValid() && key.isReadable()) read((LoadClient) key.attachment(), key);
+            }
+            long now = System.currentTimeMillis();
+            if (now >= nextInput) {
+                nextInput = now + INPUT_INTERVAL_MS;
+                for (LoadClient client : clients) {
+                    if (!client.spectator) send(client);
+                }
+            }
+            if (now >= nextReport) {
+                nextReport = now + 5000;
+                System.out.printf("[load] connections=%d frames/s=%d KB/s=%d%n",
+                    clients.length, (frames - lastFrames) / 5, (bytes - lastBytes) / 5 / 1024);
+                lastFrames = frames;
+                lastBytes = bytes;
+            }
+        }
+        for (LoadClient client : clients) client.channel.close();
+        selector.close();
+    }
+
+    private void send(LoadClient client) {
+        if (!client.channel.isOpen()) return;
+        client.out.clear();
+        client.out.put(client.nextInput());
+        client.out.flip();
+        try {
+            client.channel.write(client.out);
+        } catch (IOException e) {
+            closeQuietly(client);
+        }
+    }
+
+    private void read(LoadClient client, SelectionKey key) {
+        ByteBuffer in = client.in;
+        int n;
+        try {
+            n = client.channel.read(in);
+        } catch (IOException e) {
+            n = -1;
+        }
+        if (n < 0) {
+            key.cancel();
+            closeQuietly(client);
+            return;
+        }
+        bytes += n;
+        in.flip();
+        // Consome quadros completos
+        while (in.remaining() >= 2) {
+            int len = in.getShort(in.position()) & 0xFFFF;
+            if (in.remaining() < 2 + len) break;
+            int start = in.position() + 2;
+            byte type = in.get(start);
+            if (type == GameProtocol.MSG_SYNC) {
+                in.position(start + 1);
+                client.state.apply(in);
+            } else if (type == GameProtocol.MSG_SESSION) {
+                client.sessionId = in.getInt(start + 1);
+            }
+            frames++;
+            in.position(start + len);
+        }
+        in.compact();
+    }
+
+    private static void closeQuietly(LoadClient client) {
+        try {
+            client.channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        long durationMs = Long.getLong("tetris.load.durationMs", 60_000);
+        GameServer embedded = null;
+        String host;
+        int port;
+        if (args.length >= 3) {
+            host = args[1];
+            port = Integer.parseInt(args[2]);
+        } else {
+            // Sem host: servidor no mesmo processo, porta livre qualquer
+            embedded = new GameServer(0, 42, Runtime.getRuntime().availableProcessors());
+            host = "127.0.0.1";
+            port = embedded.start();
+        }
+        int spectators = Integer.getInteger("tetris.load.spectators", 0);
+        LoadGenerator load = new LoadGenerator(host, port, count, spectators, 42);
+        GameServer server = embedded;
+        Thread reporter = null;
+        if (server != null) {
+            reporter = new Thread(() -> {
+                try {
+                    server.reportForever();
+                } catch (InterruptedException ignored) {
+                }
+            }, "tetris-report");
+            reporter.setDaemon(true);
+            reporter.start();
+        }
+        load.run(durationMs);
+        if (server != null) {
+            reporter.interrupt();
+            server.stop();
+        }
+    }
+}
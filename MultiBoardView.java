@@ -0,0 +1,283 @@
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Vários tabuleiros ao vivo numa janela só (saguão de torneio, painel de
+ * treino dos bots).
+ *
+ * Ao contrário de um GamePanel por partida, aqui não há Timer nem
+ * VisualEffects por tabuleiro: os engines avançam em threads de lógica
+ * (shards, como no GameServer) e cada um publica uma cópia compacta das
+ * células; o EDT desenha todos os tabuleiros numa passada só, com um
+ * cache de sprites compartilhado por cor e tamanho de célula.
+ *
+ * Nível de detalhe pelo tamanho da célula: sprites com gradiente, rótulo
+ * e fundo quadriculado quando grande; blocos chapados quando médio; só os
+ * blocos, sem rótulo nem grade, quando pequeno. Nunca há brilho nem
+ * partículas.
+ *
+ * Uso: java Tetris --boards N [--seed N] [--theme azul|branco|preto] [--weights arquivo]
+ */
+public class MultiBoardView extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int ROWS = GameEngine.ROWS;
+    private static final int COLS = GameEngine.COLS;
+    private static final int TICK_MS = GameServer.TICK_MS;
+    private static final int RESTART_TICKS = 120; // pausa antes de recomeçar uma partida encerrada
+    private static final int SPRITE_MIN_CELL = 14;
+    private static final int FLAT_MIN_CELL = 6;
+    private static final int GAP = 6;
+
+    enum Detail { SPRITES, FLAT, TINY }
+
+    /* -------------------------
+       TABULEIRO: engine + bot na thread de lógica, cópia publicada para o EDT
+       ------------------------- */
+    static final class Board {
+        final GameEngine engine = new GameEngine();
+        final Bot bot;
+        final long seed;
+        private int games;
+        private int overTicks;
+
+        private final byte[] back = new byte[ROWS * COLS]; // só a thread de lógica
+        // Protegidos pelo monitor do Board
+        private final byte[] front = new byte[ROWS * COLS];
+        private int score, lines;
+        private boolean gameOver;
+
+        Board(long seed, double[] weights) {
+            this.seed = seed;
+            this.bot = new Bot(weights);
+            engine.reset(PieceGenerator.create(PieceGenerator.Kind.BAG, PieceGenerator.seedFor(seed, games++)));
+        }
+
+        // Um tick de jogo; chamado só pela thread do shard
+        void step() {
+            if (engine.isGameOver()) {
+                if (++overTicks >= RESTART_TICKS) {
+                    overTicks = 0;
+                    engine.reset(PieceGenerator.create(PieceGenerator.Kind.BAG, PieceGenerator.seedFor(seed, games++)));
+                }
+            } else {
+                bot.playStep(engine);
+                engine.tick(TICK_MS);
+            }
+            publish();
+        }
+
+        private void publish() {
+            for (int r = 0; r < ROWS; r++) {
+                for (int c = 0; c < COLS; c++) {
+                    back[r * COLS + c] = (byte) GameProtocol.colorIndex(engine.cell(r, c));
+                }
+            }
+            Tetromino cur = engine.getCurrent();
+            if (cur != null && !engine.isGameOver()) {
+                for (java.awt.Point p : cur.blocks(engine.getRotation())) {
+                    int r = engine.getCurRow() + p.y;
+                    int c = engine.getCurCol() + p.x;
+                    if (r >= 0 && r < ROWS && c >= 0 && c < COLS) back[r * COLS + c] = (byte) (cur.ordinal() + 1);
+                }
+            }
+            synchronized (this) {
+                System.arraycopy(back, 0, front, 0, back.length);
+                score = engine.getScore();
+                lines = engine.getTotalLines();
+                gameOver = engine.isGameOver();
+            }
+        }
+    }
+
+    private final Board[] boards;
+    private final Theme theme;
+    private final ScheduledExecutorService logic;
+
+    // Só o EDT: cópia do tabuleiro sendo desenhado e o cache de sprites
+    private final byte[] cells = new byte[ROWS * COLS];
+    private final BufferedImage[] sprites = new BufferedImage[Tetromino.COUNT + 1];
+    private int spriteSize = -1;
+    private final Font labelFont = new Font("Segoe UI", Font.BOLD, 11);
+
+    public MultiBoardView(int count, long seed, double[] weights, Theme theme) {
+        this.theme = theme;
+        this.boards = new Board[count];
+        for (int i = 0; i < count; i++) boards[i] = new Board(PieceGenerator.seedFor(seed, i), weights);
+        setBackground(theme.bgMain);
+        setPreferredSize(new Dimension(1280, 800));
+
+        // Shards: cada thread avança uma fatia fixa dos tabuleiros
+        int shards = Math.max(1, Math.min(count, Runtime.getRuntime().availableProcessors()));
+        logic = Executors.newScheduledThreadPool(shards, r -> {
+            Thread t = new Thread(r, "tetris-boards");
+            t.setDaemon(true);
+            return t;
+        });
+        for (int s = 0; s < shards; s++) {
+            int from = s * count / shards, to = (s + 1) * count / shards;
+            logic.scheduleAtFixedRate(() -> {
+                for (int i = from; i < to; i++) boards[i].step();
+            }, 0, TICK_MS, TimeUnit.MILLISECONDS);
+        }
+        // ~30 quadros por segundo bastam para dezenas de tabuleiros pequenos
+        new Timer(33, e -> repaint()).start();
+    }
+
+    void stop() {
+        logic.shutdownNow();
+    }
+
+    static Detail detailFor(int cellSize) {
+        if (cellSize >= SPRITE_MIN_CELL) return Detail.SPRITES;
+        if (cellSize >= FLAT_MIN_CELL) return Detail.FLAT;
+        return Detail.TINY;
+    }
+
+    // Sprites de bloco (mesmo visual do GamePanel, sem brilho) para o tamanho atual
+    private void ensureSprites(int size) {
+        if (size == spriteSize) return;
+        spriteSize = size;
+        for (int i = 1; i < sprites.length; i++) {
+            Color base = GameProtocol.colorOf(i);
+            BufferedImage img = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = img.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            Color highlight = new Color(
+                Math.min(255, base.getRed() + 100),
+                Math.min(255, base.getGreen() + 100),
+                Math.min(255, base.getBlue() + 100)
+            );
+            g.setPaint(new GradientPaint(0, 0, highlight, size, size, base.darker()));
+            g.fillRoundRect(1, 1, size - 2, size - 2, size / 4, size / 4);
+            g.setStroke(new BasicStroke(Math.max(1, size / 15f)));
+            g.setColor(new Color(255, 255, 255, 100));
+            g.drawRoundRect(2, 2, size - 4, size - 4, size / 5, size / 5);
+            g.setClip(new RoundRectangle2D.Float(2, 2, size - 4, size - 4, size / 5f, size / 5f));
+            g.setColor(new Color(255, 255, 255, 50));
+            g.fillOval(-size / 6, -size / 6, size, size / 2);
+            g.dispose();
+            sprites[i] = img;
+        }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Graphics2D g2 = (Graphics2D) g;
+        int n = boards.length;
+        // Número de colunas da grade que deixa as células maiores
+        int labelH = 14;
+        int gridCols = 1, cellSize = 0;
+        for (int cols = 1; cols <= n; cols++) {
+            int rows = (n + cols - 1) / cols;
+            int size = Math.min(((getWidth() - GAP) / cols - GAP) / COLS,
+                                ((getHeight() - GAP) / rows - GAP - labelH) / ROWS);
+            if (size > cellSize) {
+                cellSize = size;
+                gridCols = cols;
+            }
+        }
+        cellSize = Math.max(1, cellSize);
+        int gridRows = (n + gridCols - 1) / gridCols;
+        int tileW = (getWidth() - GAP) / gridCols;
+        int tileH = (getHeight() - GAP) / gridRows;
+        Detail detail = detailFor(cellSize);
+        if (detail == Detail.SPRITES) ensureSprites(cellSize);
+        g2.setFont(labelFont);
+
+        for (int i = 0; i < n; i++) {
+            Board b = boards[i];
+            int score, lines;
+            boolean over;
+            synchronized (b) {
+                System.arraycopy(b.front, 0, cells, 0, cells.length);
+                score = b.score;
+                lines = b.lines;
+                over = b.gameOver;
+            }
+            int x = GAP + (i % gridCols) * tileW;
+            int y = GAP + (i / gridCols) * tileH;
+            if (detail != Detail.TINY) {
+                g2.setColor(theme.labelColor);
+                g2.drawString("#" + (i + 1) + "  " + score + "  L" + lines, x, y + labelH - 3);
+                y += labelH;
+            }
+            drawBoard(g2, x, y, cellSize, detail, over);
+        }
+    }
+
+    private void drawBoard(Graphics2D g2, int x, int y, int cellSize, Detail detail, boolean over) {
+        g2.setColor(theme.bgField);
+        g2.fillRect(x, y, COLS * cellSize, ROWS * cellSize);
+        if (detail == Detail.SPRITES) {
+            g2.setColor(theme.gridColor);
+            for (int c = 0; c <= COLS; c++) g2.drawLine(x + c * cellSize, y, x + c * cellSize, y + ROWS * cellSize);
+            for (int r = 0; r <= ROWS; r++) g2.drawLine(x, y + r * cellSize, x + COLS * cellSize, y + r * cellSize);
+        }
+        int inset = detail == Detail.TINY ? 0 : 1;
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++) {
+                int v = cells[r * COLS + c];
+                if (v == 0) continue;
+                int cx = x + c * cellSize, cy = y + r * cellSize;
+                if (detail == Detail.SPRITES) {
+                    g2.drawImage(sprites[v], cx, cy, null);
+                } else {
+                    g2.setColor(GameProtocol.colorOf(v));
+                    g2.fillRect(cx + inset, cy + inset, cellSize - inset * 2, cellSize - inset * 2);
+                }
+            }
+        }
+        if (over) {
+            g2.setColor(new Color(0, 0, 0, 140));
+            g2.fillRect(x, y, COLS * cellSize, ROWS * cellSize);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int count = 16;
+        long seed = System.nanoTime();
+        Theme theme = Theme.BLUE;
+        Path weightsFile = Path.of("bot.weights");
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--theme" -> theme = Theme.parse(args[++i]);
+                case "--weights" -> weightsFile = Path.of(args[++i]);
+                default -> {
+                    if (i == 0 && !args[i].startsWith("--")) count = Integer.parseInt(args[i]);
+                    else System.err.println("Argumento ignorado: " + args[i]);
+                }
+            }
+        }
+        double[] weights = Files.isRegularFile(weightsFile) ? Bot.readWeights(weightsFile) : Bot.DEFAULT_WEIGHTS;
+        int boards = count;
+        long s = seed;
+        Theme t = theme;
+        SwingUtilities.invokeLater(() -> {
+            JFrame frame = new JFrame("Tetris — " + boards + " tabuleiros");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.add(new MultiBoardView(boards, s, weights, t));
+            frame.pack();
+            frame.setLocationRelativeTo(null);
+            frame.setVisible(true);
+        });
+    }
+}
@@ -0,0 +1,448 @@
+import java.nio.ByteBuffer;
+import java.util.random.RandomGenerator;
+
+/**
+ * Gerador de peças plugável. Cada implementação consome um fluxo
+ * {@link SplitMix64} próprio, então dois geradores criados com a mesma
+ * semente produzem exatamente a mesma sequência de peças.
+ *
+ * Para simulações paralelas use {@link #seedFor(long, long)}: a semente de
+ * cada jogo depende apenas da semente raiz e do índice do jogo, nunca da
+ * ordem em que as threads pegam o trabalho.
+ */
+public interface PieceGenerator {
+
+    // Tipos disponíveis (também usados na linha de comando: --randomizer)
+    enum Kind {
+        UNIFORM, BAG, HISTORY;
+
+        static Kind parse(String s) {
+            return switch (s.toLowerCase()) {
+                case "uniform", "uniforme" -> UNIFORM;
+                case "bag", "7bag", "7-bag" -> BAG;
+                case "history", "historico", "tgm" -> HISTORY;
+                default -> throw new IllegalArgumentException("Randomizer desconhecido: " + s);
+            };
+        }
+    }
+
+    /** Sorteia a próxima peça. */
+    Tetromino next();
+
+    /** Preenche {@code dst[off..off+n)} com os ordinais das próximas n peças. */
+    default void fill(byte[] dst, int off, int n) {
+        for (int i = 0; i < n; i++) {
+            dst[off + i] = (byte) next().ordinal();
+        }
+    }
+
+    /** Cria um gerador independente, do mesmo tipo, derivado deste fluxo. */
+    PieceGenerator split();
+
+    Kind kind();
+
+    /** Grava o estado completo (tipo, fluxo aleatório e estado interno) em {@code out}. */
+    void saveState(ByteBuffer out);
+
+    /** Restaura um estado gravado por {@link #saveState} em um gerador do mesmo tipo. */
+    void loadState(ByteBuffer in);
+
+    // Lê o tipo gravado por saveState e devolve um gerador já restaurado
+    static PieceGenerator read(ByteBuffer in) {
+        Kind kind = Kind.values()[in.get(in.position())];
+        PieceGenerator g = create(kind, 0);
+        g.loadState(in);
+        return g;
+    }
+
+    static PieceGenerator create(Kind kind, long seed) {
+        return create(kind, new SplitMix64(seed));
+    }
+
+    static PieceGenerator create(Kind kind, SplitMix64 rng) {
+        return switch (kind) {
+            case UNIFORM -> new UniformGenerator(rng);
+            case BAG -> new BagGenerator(rng);
+            case HISTORY -> new HistoryGenerator(rng);
+        };
+    }
+
+    /**
+     * Semente do jogo {@code index} derivada da semente raiz. Mesma mistura
+     * do SplitMix64, então jogos vizinhos não têm sequências correlacionadas.
+     */
+    static long seedFor(long rootSeed, long index) {
+        return SplitMix64.mix64(rootSeed + (index + 1) * SplitMix64.GOLDEN_GAMMA);
+    }
+}
+
+/* -------------------------
+   SPLITMIX64
+   Mesmo algoritmo do java.util.SplittableRandom, mas com o estado exposto
+   (o SplittableRandom não permite ler/gravar o estado interno).
+   ------------------------- */
+final class SplitMix64 implements RandomGenerator {
+    static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private long seed;
+    private long gamma;
+
+    SplitMix64(long seed) {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    SplitMix64(long seed, long gamma) {
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static int mix32(long z) {
+        z = (z ^ (z >>> 33)) * 0x62a9d9ed799705f5L;
+        return (int) (((z ^ (z >>> 28)) * 0xcb24d0a5c88c35b3L) >>> 32);
+    }
+
+    private static long mixGamma(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+
+    private long nextSeed() {
+        return seed += gamma;
+    }
+
+    @Override
+    public long nextLong() {
+        return mix64(nextSeed());
+    }
+
+    @Override
+    public int nextInt() {
+        return mix32(nextSeed());
+    }
+
+    // Inteiro uniforme em [0, bound) sem viés (bound pequeno, sempre > 0)
+    @Override
+    public int nextInt(int bound) {
+        int r = nextInt();
+        int m = bound - 1;
+        if ((bound & m) == 0) {
+            return r & m;
+        }
+        for (int u = r >>> 1; u + m - (r = u % bound) < 0; u = nextInt() >>> 1) {
+        }
+        return r;
+    }
+
+    SplitMix64 split() {
+        return new SplitMix64(nextLong(), mixGamma(nextSeed()));
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    long getGamma() {
+        return gamma;
+    }
+
+    void save(ByteBuffer out) {
+        out.putLong(seed);
+        out.putLong(gamma);
+    }
+
+    void load(ByteBuffer in) {
+        seed = in.getLong();
+        gamma = in.getLong();
+    }
+}
+
+/* -------------------------
+   UNIFORME (comportamento original)
+   ------------------------- */
+final class UniformGenerator implements PieceGenerator {
+    private final SplitMix64 rng;
+
+    UniformGenerator(SplitMix64 rng) {
+        this.rng = rng;
+    }
+
+    @Override
+    public Tetromino next() {
+        return Tetromino.random(rng);
+    }
+
+    @Override
+    public void fill(byte[] dst, int off, int n) {
+        int count = Tetromino.COUNT;
+        for (int i = 0; i < n; i++) {
+            dst[off + i] = (byte) rng.nextInt(count);
+        }
+    }
+
+    @Override
+    public PieceGenerator split() {
+        return new UniformGenerator(rng.split());
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) kind().ordinal());
+        rng.save(out);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        in.get(); // tipo
+        rng.load(in);
+    }
+
+    @Override
+    public Kind kind() {
+        return Kind.UNIFORM;
+    }
+}
+
+/* -------------------------
+   7-BAG: embaralha as 7 peças e entrega uma de cada vez
+   ------------------------- */
+final class BagGenerator implements PieceGenerator {
+    private final SplitMix64 rng;
+    private final byte[] bag = new byte[Tetromino.COUNT];
+    private int pos = bag.length; // força o primeiro embaralhamento
+
+    BagGenerator(SplitMix64 rng) {
+        this.rng = rng;
+    }
+
+    private void refill() {
+        for (int i = 0; i < bag.length; i++) bag[i] = (byte) i;
+        // Fisher-Yates
+        for (int i = bag.length - 1; i > 0; i--) {
+            int j = rng.nextInt(i + 1);
+            byte t = bag[i];
+            bag[i] = bag[j];
+            bag[j] = t;
+        }
+        pos = 0;
+    }
+
+    private int nextOrdinal() {
+        if (pos == bag.length) refill();
+        return bag[pos++];
+    }
+
+    @Override
+    public Tetromino next() {
+        return Tetromino.byOrdinal(nextOrdinal());
+    }
+
+    @Override
+    public void fill(byte[] dst, int off, int n) {
+        for (int i = 0; i < n; i++) {
+            dst[off + i] = (byte) nextOrdinal();
+        }
+    }
+
+    @Override
+    public PieceGenerator split() {
+        return new BagGenerator(rng.split());
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) kind().ordinal());
+        rng.save(out);
+        out.put((byte) pos);
+        out.put(bag);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        in.get(); // tipo
+        rng.load(in);
+        pos = in.get();
+        in.get(bag);
+    }
+
+    @Override
+    public Kind kind() {
+        return Kind.BAG;
+    }
+}
+
+/* -------------------------
+   HISTÓRICO (estilo TGM): evita repetir as últimas 4 peças,
+   tentando até ROLLS vezes antes de aceitar uma repetição
+   ------------------------- */
+final class HistoryGenerator implements PieceGenerator {
+    private static final int ROLLS = 4;
+
+    private final SplitMix64 rng;
+    private final byte[] history = new byte[4];
+    private int head = 0;
+    private boolean first = true;
+
+    HistoryGenerator(SplitMix64 rng) {
+        this.rng = rng;
+        // Histórico inicial só com Z, como no TGM
+        for (int i = 0; i < history.length; i++) history[i] = (byte) Tetromino.Z.ordinal();
+    }
+
+    private boolean inHistory(int ordinal) {
+        for (byte h : history) {
+            if (h == ordinal) return true;
+        }
+        return false;
+    }
+
+    private int nextOrdinal() {
+        int piece;
+        if (first) {
+            // A primeira peça nunca é S, Z ou O
+            first = false;
+            do {
+                piece = rng.nextInt(Tetromino.COUNT);
+            } while (piece == Tetromino.S.ordinal() || piece == Tetromino.Z.ordinal() || piece == Tetromino.O.ordinal());
+        } else {
+            piece = rng.nextInt(Tetromino.COUNT);
+            for (int i = 1; i < ROLLS && inHistory(piece); i++) {
+                piece = rng.nextInt(Tetromino.COUNT);
+            }
+        }
+        history[head] = (byte) piece;
+        head = (head + 1) & 3;
+        return piece;
+    }
+
+    @Override
+    public Tetromino next() {
+        return Tetromino.byOrdinal(nextOrdinal());
+    }
+
+    @Override
+    public void fill(byte[] dst, int off, int n) {
+        for (int i = 0; i < n; i++) {
+            dst[off + i] = (byte) nextOrdinal();
+        }
+    }
+
+    @Override
+    public PieceGenerator split() {
+        return new HistoryGenerator(rng.split());
+    }
+
+    @Override
+    public void saveState(ByteBuffer out) {
+        out.put((byte) kind().ordinal());
+        rng.save(out);
+        out.put((byte) (head | (first ? 0x80 : 0)));
+        out.put(history);
+    }
+
+    @Override
+    public void loadState(ByteBuffer in) {
+        in.get(); // tipo
+        rng.load(in);
+        int b = in.get();
+        head = b & 3;
+        first = (b & 0x80) != 0;
+        in.get(history);
+    }
+
+    @Override
+    public Kind kind() {
+        return Kind.HISTORY;
+    }
+}
+
+/* -------------------------
+   FILA DE PRÓXIMAS PEÇAS
+   Buffer circular de bytes (ordinais). Busca as peças do gerador em lote
+   para não chamar o gerador a cada spawn.
+   ------------------------- */
+final class PieceQueue {
+    private final PieceGenerator generator;
+    private final byte[] ring;
+    private final int mask;
+    private final int batch;
+    private long readPos = 0;  // próxima peça a entregar
+    private long writePos = 0; // próxima posição livre
+
+    PieceQueue(PieceGenerator generator) {
+        this(generator, 64);
+    }
+
+    // capacity precisa ser potência de 2
+    PieceQueue(PieceGenerator generator, int capacity) {
+        if (capacity < 2 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity deve ser potência de 2: " + capacity);
+        }
+        this.generator = generator;
+        this.ring = new byte[capacity];
+        this.mask = capacity - 1;
+        this.batch = capacity / 2;
+    }
+
+    int size() {
+        return (int) (writePos - readPos);
+    }
+
+    /** Garante que pelo menos n peças estejam no buffer. */
+    void prefetch(int n) {
+        if (n > ring.length) throw new IllegalArgumentException("prefetch maior que o buffer: " + n);
+        int missing = n - size();
+        if (missing <= 0) return;
+        // Completa até o lote, mas sem sobrescrever o que ainda não foi lido
+        int count = Math.min(Math.max(missing, batch), ring.length - size());
+        int start = (int) (writePos & mask);
+        int first = Math.min(count, ring.length - start);
+        generator.fill(ring, start, first);
+        if (first < count) generator.fill(ring, 0, count - first);
+        writePos += count;
+    }
+
+    /** Retira a próxima peça. */
+    Tetromino take() {
+        if (readPos == writePos) prefetch(1);
+        return Tetromino.byOrdinal(ring[(int) (readPos++ & mask)]);
+    }
+
+    /** Espia a i-ésima peça à frente sem retirá-la (0 = a próxima). */
+    Tetromino peek(int i) {
+        prefetch(i + 1);
+        return Tetromino.byOrdinal(ring[(int) ((readPos + i) & mask)]);
+    }
+
+    PieceGenerator generator() {
+        return generator;
+    }
+
+    // Peças já sorteadas e ainda não entregues, seguidas do estado do gerador
+    void saveState(ByteBuffer out) {
+        int n = size();
+        out.put((byte) n);
+        for (int i = 0; i < n; i++) {
+            out.put(ring[(int) ((readPos + i) & mask)]);
+        }
+        generator.saveState(out);
+    }
+
+    static PieceQueue read(ByteBuffer in) {
+        int n = in.get() & 0xFF;
+        byte[] buffered = new byte[n];
+        in.get(buffered);
+        PieceQueue q = new PieceQueue(PieceGenerator.read(in));
+        System.arraycopy(buffered, 0, q.ring, 0, n);
+        q.writePos = n;
+        return q;
+    }
+}
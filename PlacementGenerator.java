@@ -0,0 +1,263 @@
+import java.awt.Point;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Enumera todas as posições finais alcançáveis pela peça atual com as
+ * regras do {@link GameEngine}: andar, descer (soft drop) e girar com os
+ * chutes de {@link GameEngine#ROTATION_KICKS} e o recurso de subir uma
+ * linha. Inclui encaixes por baixo de saliências (tucks) e giros em
+ * buracos (spins), que um simples "girar, andar e soltar" não acha.
+ *
+ * É uma busca em largura sobre estados (linha, coluna, rotação) a partir da
+ * posição atual. Os estados visitados ficam num bitset e a fila, os pais e
+ * as posições encontradas em arrays pré-alocados: gerar não aloca nada.
+ * Uma posição é cada estado em que a peça não consegue descer; posições
+ * diferentes que ocupam as mesmas células contam uma vez só (fica a de
+ * caminho mais curto).
+ *
+ * Não é thread-safe: uma instância por thread.
+ */
+public final class PlacementGenerator {
+    static final int MAX_PLACEMENTS = 512;
+
+    private static final int ROWS = GameEngine.ROWS;
+    private static final int COLS = GameEngine.COLS;
+    private static final int ROW_OFF = 6; // linhas acima do tabuleiro (nascimento e chute para cima)
+    private static final int COL_OFF = 3; // colunas à esquerda (borda vazia da grade 4x4)
+    private static final int ROW_RANGE = ROWS + ROW_OFF;
+    private static final int COL_RANGE = COLS + COL_OFF;
+    private static final int STATES = 4 * ROW_RANGE * COL_RANGE;
+    private static final int HASH_SIZE = 1024; // potência de 2, mais que o dobro de MAX_PLACEMENTS
+    private static final int NONE = -1;
+
+    private final int[] board = new int[ROWS]; // bit c = coluna c ocupada
+    private final long[] visited = new long[(STATES + 63) / 64];
+    private final int[] queue = new int[STATES];
+    private final int[] parent = new int[STATES];
+    private final byte[] via = new byte[STATES]; // comando que levou ao estado
+    private final int[] placements = new int[MAX_PLACEMENTS];
+    private final long[] seen = new long[HASH_SIZE]; // células das posições já encontradas
+    private final int[] cells = new int[4];
+    private Tetromino piece;
+    private int count;
+
+    private static int state(int row, int col, int rot) {
+        return (rot * ROW_RANGE + row + ROW_OFF) * COL_RANGE + col + COL_OFF;
+    }
+
+    private static int rowOf(int s) {
+        return (s / COL_RANGE) % ROW_RANGE - ROW_OFF;
+    }
+
+    private static int colOf(int s) {
+        return s % COL_RANGE - COL_OFF;
+    }
+
+    private static int rotOf(int s) {
+        return s / (COL_RANGE * ROW_RANGE);
+    }
+
+    /** Tabuleiro da última geração como máscaras de bits por linha (não modificar). */
+    int[] board() {
+        return board;
+    }
+
+    /** Gera as posições da peça atual do engine; retorna quantas são. */
+    int generate(GameEngine engine) {
+        for (int r = 0; r < ROWS; r++) {
+            int mask = 0;
+            for (int c = 0; c < COLS; c++) {
+                if (engine.cell(r, c) != null) mask |= 1 << c;
+            }
+            board[r] = mask;
+        }
+        if (engine.isGameOver() || engine.getCurrent() == null) {
+            count = 0;
+            return 0;
+        }
+        return search(engine.getCurrent(), engine.getCurRow(), engine.getCurCol(), engine.getRotation());
+    }
+
+    /** Gera as posições para um tabuleiro em máscaras de bits (copiado) e uma peça em (row, col, rot). */
+    int generate(int[] rows, Tetromino piece, int row, int col, int rot) {
+        System.arraycopy(rows, 0, board, 0, ROWS);
+        return search(piece, row, col, rot);
+    }
+
+    private boolean fits(Point[] blocks, int row, int col) {
+        for (Point p : blocks) {
+            int r = row + p.y;
+            int c = col + p.x;
+            if (c < 0 || c >= COLS || r >= ROWS) return false;
+            if (r >= 0 && (board[r] & (1 << c)) != 0) return false;
+        }
+        return true;
+    }
+
+    // Marca e enfileira o estado se ainda não foi visitado
+    private int push(int tail, int s, int from, byte input) {
+        long bit = 1L << (s & 63);
+        if ((visited[s >>> 6] & bit) != 0) return tail;
+        visited[s >>> 6] |= bit;
+        parent[s] = from;
+        via[s] = input;
+        queue[tail] = s;
+        return tail + 1;
+    }
+
+    private int search(Tetromino piece, int startRow, int startCol, int startRot) {
+        this.piece = piece;
+        count = 0;
+        Arrays.fill(visited, 0);
+        Arrays.fill(seen, 0);
+        if (startRow < -ROW_OFF || !fits(piece.blocks(startRot), startRow, startCol)) return 0;
+
+        int rotations = piece.rotationCount();
+        int head = 0;
+        int tail = push(0, state(startRow, startCol, startRot), NONE, (byte) 0);
+        while (head < tail) {
+            int s = queue[head++];
+            int row = rowOf(s), col = colOf(s), rot = rotOf(s);
+            Point[] blocks = piece.blocks(rot);
+
+            if (fits(blocks, row, col - 1)) tail = push(tail, state(row, col - 1, rot), s, GameProtocol.IN_LEFT);
+            if (fits(blocks, row, col + 1)) tail = push(tail, state(row, col + 1, rot), s, GameProtocol.IN_RIGHT);
+            if (fits(blocks, row + 1, col)) {
+                tail = push(tail, state(row + 1, col, rot), s, GameProtocol.IN_SOFT_DROP);
+            } else {
+                addPlacement(s, blocks, row, col);
+            }
+
+            // Rotação com os mesmos chutes de GameEngine.rotate
+            int newRot = (rot + 1) % rotations;
+            Point[] rotated = piece.blocks(newRot);
+            int target = NONE;
+            for (int k : GameEngine.ROTATION_KICKS) {
+                if (fits(rotated, row, col + k)) {
+                    target = state(row, col + k, newRot);
+                    break;
+                }
+            }
+            if (target == NONE && row - 1 >= -ROW_OFF && fits(rotated, row - 1, col)) {
+                target = state(row - 1, col, newRot);
+            }
+            if (target != NONE) tail = push(tail, target, s, GameProtocol.IN_ROTATE);
+        }
+        return count;
+    }
+
+    private void addPlacement(int s, Point[] blocks, int row, int col) {
+        // Travar acima do topo encerra a partida: não é uma posição válida
+        for (int i = 0; i < 4; i++) {
+            int r = row + blocks[i].y;
+            if (r < 0) return;
+            cells[i] = r * COLS + col + blocks[i].x;
+        }
+        // Chave independente da rotação: as quatro células em ordem
+        for (int i = 1; i < 4; i++) {
+            int v = cells[i], j = i - 1;
+            while (j >= 0 && cells[j] > v) {
+                cells[j + 1] = cells[j];
+                j--;
+            }
+            cells[j + 1] = v;
+        }
+        long key = 0;
+        for (int i = 0; i < 4; i++) key = key << 8 | (cells[i] + 1);
+        int h = (int) (SplitMix64.mix64(key) & (HASH_SIZE - 1));
+        while (seen[h] != 0) {
+            if (seen[h] == key) return;
+            h = (h + 1) & (HASH_SIZE - 1);
+        }
+        if (count == MAX_PLACEMENTS) return;
+        seen[h] = key;
+        placements[count++] = s;
+    }
+
+    int count() {
+        return count;
+    }
+
+    Tetromino piece() {
+        return piece;
+    }
+
+    int row(int i) {
+        return rowOf(placements[i]);
+    }
+
+    int col(int i) {
+        return colOf(placements[i]);
+    }
+
+    int rotation(int i) {
+        return rotOf(placements[i]);
+    }
+
+    /**
+     * Escreve em {@code out} os comandos (GameProtocol.IN_*) que levam da
+     * posição inicial até a posição {@code i}, sem o hard drop final; retorna
+     * quantos são. {@code out} precisa ter espaço para o caminho inteiro.
+     */
+    int path(int i, byte[] out) {
+        int len = 0;
+        for (int s = placements[i]; parent[s] != NONE; s = parent[s]) len++;
+        int pos = len;
+        for (int s = placements[i]; parent[s] != NONE; s = parent[s]) out[--pos] = via[s];
+        return len;
+    }
+
+    static int maxPathLength() {
+        return STATES;
+    }
+
+    /* -------------------------
+       BENCHMARK: java Tetris --movegen-bench [posições] [segundos]
+       ------------------------- */
+
+    public static void main(String[] args) {
+        int positions = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 5;
+
+        // Posições variadas, tiradas de partidas do bot
+        List<GameEngine> engines = new ArrayList<>();
+        ByteBuffer scratch = ByteBuffer.allocate(GameEngine.MAX_STATE_SIZE);
+        Bot bot = new Bot();
+        for (int game = 0; engines.size() < positions; game++) {
+            GameEngine engine = new GameEngine();
+            engine.reset(PieceGenerator.create(PieceGenerator.Kind.BAG, PieceGenerator.seedFor(7, game)));
+            while (!engine.isGameOver() && engine.getPiecesPlaced() < 400 && engines.size() < positions) {
+                engines.add(GameSnapshot.fork(engine, scratch));
+                bot.placePiece(engine);
+            }
+        }
+
+        PlacementGenerator gen = new PlacementGenerator();
+        long total = 0;
+        for (GameEngine e : engines) total += gen.generate(e); // aquecimento
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        long allocBefore = threads.getThreadAllocatedBytes(tid);
+        long deadline = System.nanoTime() + (long) (seconds * 1e9);
+        long start = System.nanoTime();
+        long calls = 0;
+        total = 0;
+        while (System.nanoTime() < deadline) {
+            for (GameEngine e : engines) {
+                total += gen.generate(e);
+            }
+            calls += engines.size();
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+        long alloc = threads.getThreadAllocatedBytes(tid) - allocBefore;
+        System.out.printf(Locale.ROOT,
+            "{\"positions\": %d, \"calls\": %d, \"callsPerSec\": %.0f, \"placementsPerSec\": %.0f, \"avgPlacements\": %.1f, \"bytesPerCall\": %.2f}%n",
+            engines.size(), calls, calls / secs, total / secs, (double) total / calls, (double) alloc / calls);
+    }
+}
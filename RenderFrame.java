@@ -0,0 +1,55 @@
+import java.awt.Color;
+
+/**
+ * Retrato imutável de tudo que o GamePanel desenha: células fixas, peça
+ * atual e fantasma, próxima peça, placar e os estados de pausa e fim.
+ *
+ * A thread de lógica cria um por passo ({@link #capture}) e publica numa
+ * referência volátil; quem desenha lê a referência uma vez por quadro e usa
+ * só este objeto, nunca o engine. Como nada aqui muda depois de criado, a
+ * lógica pode avançar enquanto outro núcleo desenha o quadro anterior, sem
+ * trava e sem quadro misturando dois passos.
+ *
+ * Custa uma cópia de 200 referências por passo (as cores são imutáveis).
+ */
+final class RenderFrame {
+    private static final int ROWS = GameEngine.ROWS;
+    private static final int COLS = GameEngine.COLS;
+
+    final long sequence;
+    private final Color[] cells; // ROWS * COLS, linha a linha; null = vazia
+    final Tetromino current;     // null antes da primeira peça
+    final Tetromino next;
+    final int curRow, curCol, rotation, ghostRow;
+    final int score, level, lines;
+    final boolean gameOver;
+    final boolean paused;
+
+    private RenderFrame(long sequence, GameEngine engine, boolean paused) {
+        this.sequence = sequence;
+        cells = new Color[ROWS * COLS];
+        for (int r = 0; r < ROWS; r++) {
+            System.arraycopy(engine.row(r), 0, cells, r * COLS, COLS);
+        }
+        current = engine.getCurrent();
+        next = engine.getNext();
+        curRow = engine.getCurRow();
+        curCol = engine.getCurCol();
+        rotation = engine.getRotation();
+        ghostRow = current != null && !engine.isGameOver() ? engine.ghostRow() : curRow;
+        score = engine.getScore();
+        level = engine.getLevel();
+        lines = engine.getTotalLines();
+        gameOver = engine.isGameOver();
+        this.paused = paused;
+    }
+
+    /** Copia o estado atual; chamar na thread que mexe no engine. */
+    static RenderFrame capture(GameEngine engine, boolean paused, long sequence) {
+        return new RenderFrame(sequence, engine, paused);
+    }
+
+    Color cell(int r, int c) {
+        return cells[r * COLS + c];
+    }
+}
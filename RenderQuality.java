@@ -0,0 +1,84 @@
+/**
+ * Controla a qualidade do desenho a partir do tempo medido de cada quadro.
+ *
+ * Cada nível inclui as economias dos anteriores. Quando a média móvel do
+ * tempo de desenho passa do orçamento por alguns quadros seguidos, desce um
+ * nível; só volta a subir depois de bem mais quadros abaixo da metade do
+ * orçamento, para não ficar alternando (histerese).
+ */
+public class RenderQuality {
+
+    enum Tier {
+        FULL,               // tudo: brilho, fundo animado, blocos com gradiente e AA
+        NO_GLOW,            // sem o brilho radial embaixo de cada bloco
+        STATIC_BACKGROUND,  // fundo fixo em cache, sem animação por quadro
+        FLAT;               // blocos chapados, sem antialiasing nem hints de qualidade
+
+        static Tier parse(String s) {
+            return switch (s.toLowerCase()) {
+                case "full" -> FULL;
+                case "noglow", "no-glow" -> NO_GLOW;
+                case "static", "static-background" -> STATIC_BACKGROUND;
+                case "flat" -> FLAT;
+                default -> throw new IllegalArgumentException("Qualidade desconhecida: " + s);
+            };
+        }
+    }
+
+    private static final double SMOOTHING = 0.1;   // peso do quadro novo na média
+    private static final int DOWN_AFTER = 10;      // quadros acima do orçamento para descer
+    private static final int UP_AFTER = 120;       // quadros folgados para subir
+
+    private final long budgetNanos;
+    private Tier tier = Tier.FULL;
+    private Tier fixed; // não nulo = nível travado (--quality)
+    private double avgNanos;
+    private int overBudget;
+    private int underBudget;
+
+    /** Orçamento de desenho por quadro; metade de 16,6ms deixa folga para o resto do EDT a 60 FPS. */
+    public RenderQuality() {
+        this(8_000_000L);
+    }
+
+    public RenderQuality(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    void setFixed(Tier fixed) {
+        this.fixed = fixed;
+        if (fixed != null) tier = fixed;
+    }
+
+    Tier tier() {
+        return tier;
+    }
+
+    double averageMillis() {
+        return avgNanos / 1e6;
+    }
+
+    /** Registra quanto o último quadro levou e ajusta o nível se preciso. */
+    void record(long frameNanos) {
+        avgNanos = avgNanos == 0 ? frameNanos : avgNanos + SMOOTHING * (frameNanos - avgNanos);
+        if (fixed != null) return;
+
+        if (avgNanos > budgetNanos) {
+            underBudget = 0;
+            if (++overBudget >= DOWN_AFTER && tier.ordinal() < Tier.FLAT.ordinal()) {
+                tier = Tier.values()[tier.ordinal() + 1];
+                overBudget = 0;
+                avgNanos = budgetNanos; // dá uma chance ao novo nível antes de descer de novo
+            }
+        } else if (avgNanos < budgetNanos / 2) {
+            overBudget = 0;
+            if (++underBudget >= UP_AFTER && tier.ordinal() > 0) {
+                tier = Tier.values()[tier.ordinal() - 1];
+                underBudget = 0;
+            }
+        } else {
+            overBudget = 0;
+            underBudget = 0;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Partida gravada: tipo do gerador, semente e um comando por quadro
+ * (0 = nenhum, senão um dos GameProtocol.IN_*). Como o {@link GameEngine}
+ * é determinístico, reaplicar os comandos reproduz a partida exatamente.
+ *
+ * Cada quadro aplica o comando e depois avança a gravidade em FRAME_MS.
+ *
+ * Formato: u32 MAGIC, u16 VERSION, u8 tipo do gerador, i64 semente,
+ * i32 número de quadros, um byte de comando por quadro.
+ */
+public final class Replay {
+    static final int MAGIC = 0x54455452; // "TETR"
+    static final short VERSION = 1;
+    static final int FRAME_MS = GameServer.TICK_MS;
+
+    final PieceGenerator.Kind kind;
+    final long seed;
+    final byte[] inputs;
+
+    Replay(PieceGenerator.Kind kind, long seed, byte[] inputs) {
+        this.kind = kind;
+        this.seed = seed;
+        this.inputs = inputs;
+    }
+
+    int frameCount() {
+        return inputs.length;
+    }
+
+    /** Engine no quadro 0, pronto para receber os comandos. */
+    GameEngine newEngine() {
+        GameEngine engine = new GameEngine();
+        engine.reset(PieceGenerator.create(kind, seed));
+        return engine;
+    }
+
+    // Avança um quadro no engine informado
+    void step(GameEngine engine, int frame) {
+        byte input = inputs[frame];
+        if (input == GameProtocol.IN_RESTART) {
+            if (engine.isGameOver()) engine.reset(PieceGenerator.create(kind, PieceGenerator.seedFor(seed, frame)));
+        } else if (input != 0) {
+            GameProtocol.applyInput(engine, input);
+        }
+        engine.tick(FRAME_MS);
+    }
+
+    /**
+     * Gera uma partida com um jogador automático simples: move ou gira de
+     * tempos em tempos e faz hard drop a cada poucos movimentos.
+     */
+    static Replay simulate(PieceGenerator.Kind kind, long seed, int frames) {
+        byte[] inputs = new byte[frames];
+        SplitMix64 rng = new SplitMix64(seed ^ 0x5DEECE66DL);
+        GameEngine engine = new GameEngine();
+        engine.reset(PieceGenerator.create(kind, seed));
+        Replay replay = new Replay(kind, seed, inputs);
+        int actions = 0;
+        for (int f = 0; f < frames; f++) {
+            if (engine.isGameOver()) {
+                inputs[f] = GameProtocol.IN_RESTART;
+            } else if (f % 6 == 0) {
+                inputs[f] = ++actions % 6 == 0 ? GameProtocol.IN_HARD_DROP : switch (rng.nextInt(4)) {
+                    case 0 -> GameProtocol.IN_LEFT;
+                    case 1 -> GameProtocol.IN_RIGHT;
+                    case 2 -> GameProtocol.IN_ROTATE;
+                    default -> GameProtocol.IN_SOFT_DROP;
+                };
+            }
+            replay.step(engine, f);
+        }
+        return replay;
+    }
+
+    void write(Path file) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(4 + 2 + 1 + 8 + 4 + inputs.length);
+        buf.putInt(MAGIC).putShort(VERSION).put((byte) kind.ordinal()).putLong(seed).putInt(inputs.length).put(inputs);
+        Files.write(file, buf.array());
+    }
+
+    static Replay read(Path file) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (buf.getInt() != MAGIC || buf.getShort() != VERSION) {
+            throw new IOException("Arquivo de replay inválido: " + file);
+        }
+        PieceGenerator.Kind kind = PieceGenerator.Kind.values()[buf.get()];
+        long seed = buf.getLong();
+        byte[] inputs = new byte[buf.getInt()];
+        buf.get(inputs);
+        return new Replay(kind, seed, inputs);
+    }
+}
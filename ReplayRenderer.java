@@ -0,0 +1,259 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import javax.imageio.ImageIO;
+
+/**
+ * Renderiza um {@link Replay} em imagens fora da tela, reaproveitando o
+ * desenho do GamePanel (blocos, painel lateral e VisualEffects).
+ *
+ * A partida é simulada uma vez, guardando um snapshot do engine no começo
+ * de cada trecho de quadros. Os trechos são desenhados em paralelo, cada
+ * thread com seu próprio GamePanel e BufferedImage. A saída passa por uma
+ * fila limitada: no máximo {@code 2 * threads} trechos em andamento e, no
+ * formato rgb, no máximo {@code --memory} MB de pixels esperando o escritor.
+ *
+ * Antes de desenhar um trecho, a thread simula sem desenhar os
+ * {@link #EFFECTS_WARMUP} quadros anteriores (engine e efeitos): partículas,
+ * popups e o fundo chegam ao começo do trecho no mesmo estado em que o
+ * trecho anterior terminou. As partículas usam sementes tiradas da jogada,
+ * então a saída é idêntica entre execuções e para qualquer --chunk.
+ *
+ * Uso: java -Djava.awt.headless=true Tetris --render-replay saída
+ *        [--replay arquivo | --simulate quadros] [--size LxA] [--threads N]
+ *        [--format png|rgb] [--chunk quadros] [--memory MB] [--seed N] [--save arquivo]
+ */
+public class ReplayRenderer {
+
+    enum Format { PNG, RGB }
+
+    // Mais que a vida de uma partícula ou popup (alpha *= 0.95 até 0.01: ~90 quadros)
+    static final int EFFECTS_WARMUP = 120;
+    static final int DEFAULT_MEMORY_MB = 256;
+    // Maior byte[] que a JVM aloca com folga
+    static final int MAX_ARRAY = Integer.MAX_VALUE - 8;
+
+    private final Replay replay;
+    private final int width;
+    private final int height;
+    private final int chunkFrames;
+
+    // Um painel e uma imagem por thread de render
+    private final ThreadLocal<GamePanel> panels;
+    private final ThreadLocal<BufferedImage> images;
+
+    public ReplayRenderer(Replay replay, int width, int height, int chunkFrames) {
+        this.replay = replay;
+        this.width = width;
+        this.height = height;
+        this.chunkFrames = chunkFrames;
+        this.panels = ThreadLocal.withInitial(() -> {
+            GamePanel p = new GamePanel(Theme.BLUE, PieceGenerator.create(replay.kind, replay.seed));
+            p.setRenderQuality(RenderQuality.Tier.FULL);
+            p.setSize(width, height);
+            p.handleResize();
+            return p;
+        });
+        this.images = ThreadLocal.withInitial(() -> new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB));
+    }
+
+    // Passo sequencial: estado do engine no início de cada trecho
+    private List<byte[]> chunkSnapshots() {
+        List<byte[]> snapshots = new ArrayList<>();
+        ByteBuffer buf = ByteBuffer.allocate(GameEngine.MAX_STATE_SIZE);
+        GameEngine engine = replay.newEngine();
+        for (int f = 0; f < replay.frameCount(); f++) {
+            if (f % chunkFrames == 0) {
+                buf.clear();
+                engine.saveState(buf);
+                byte[] copy = new byte[buf.position()];
+                buf.flip();
+                buf.get(copy);
+                snapshots.add(copy);
+            }
+            replay.step(engine, f);
+        }
+        return snapshots;
+    }
+
+    // Desenha um quadro no painel da thread e devolve a imagem (reutilizada)
+    private BufferedImage renderFrame(GamePanel panel) {
+        BufferedImage img = images.get();
+        panel.publishFrame();
+        Graphics2D g = img.createGraphics();
+        panel.paint(g);
+        g.dispose();
+        return img;
+    }
+
+    /** Resultado de um trecho: nada (PNG já gravado) ou os pixels RGB em ordem. */
+    private byte[] renderChunk(int chunk, List<byte[]> snapshots, Format format, Path out) throws IOException {
+        GamePanel panel = panels.get();
+        int first = chunk * chunkFrames;
+        int last = Math.min(replay.frameCount(), first + chunkFrames);
+
+        // Parte do snapshot de um trecho anterior e simula os efeitos até o começo deste
+        int from = Math.max(0, first - EFFECTS_WARMUP) / chunkFrames;
+        panel.getEngine().loadState(ByteBuffer.wrap(snapshots.get(from)));
+        panel.resetEffects(from * chunkFrames);
+        for (int f = from * chunkFrames; f < first; f++) {
+            replay.step(panel.getEngine(), f);
+            panel.advanceEffects();
+        }
+
+        byte[] rgb = null;
+        if (format == Format.RGB) {
+            long size = rgbBytes(last - first);
+            if (size > MAX_ARRAY) {
+                throw new IOException("Trecho de " + (last - first) + " quadros " + width + "x" + height
+                    + " não cabe em um array (" + size + " bytes); use --chunk menor");
+            }
+            rgb = new byte[(int) size];
+        }
+        int pos = 0;
+        for (int f = first; f < last; f++) {
+            replay.step(panel.getEngine(), f);
+            BufferedImage img = renderFrame(panel);
+            if (format == Format.PNG) {
+                ImageIO.write(img, "png", out.resolve(String.format("frame_%06d.png", f)).toFile());
+            } else {
+                int[] px = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+                for (int p : px) {
+                    rgb[pos++] = (byte) (p >> 16);
+                    rgb[pos++] = (byte) (p >> 8);
+                    rgb[pos++] = (byte) p;
+                }
+            }
+        }
+        return rgb;
+    }
+
+    /** Renderiza tudo; retorna o número de quadros gravados. */
+    public int render(Format format, Path out, int threads, int memoryMb) throws IOException, InterruptedException {
+        if (format == Format.PNG) Files.createDirectories(out);
+        List<byte[]> snapshots = chunkSnapshots();
+        // Pixels RGB prontos e ainda não escritos, em KB; um trecho maior que o limite passa sozinho
+        int budgetKb = Math.max(1, memoryMb) * 1024;
+        Semaphore memory = new Semaphore(budgetKb);
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "tetris-render");
+            t.setDaemon(true);
+            return t;
+        });
+        // Fila limitada de trechos em andamento, consumida em ordem pelo escritor
+        BlockingQueue<Future<byte[]>> inFlight = new ArrayBlockingQueue<>(threads * 2);
+        try (OutputStream rgbOut = format == Format.RGB
+                ? new BufferedOutputStream(Files.newOutputStream(out), 1 << 20) : OutputStream.nullOutputStream()) {
+            Thread producer = new Thread(() -> {
+                try {
+                    for (int c = 0; c < snapshots.size(); c++) {
+                        int chunk = c;
+                        memory.acquire(chunkKb(chunk, format, budgetKb));
+                        inFlight.put(pool.submit(() -> renderChunk(chunk, snapshots, format, out)));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "tetris-render-submit");
+            producer.setDaemon(true);
+            producer.start();
+            for (int c = 0; c < snapshots.size(); c++) {
+                byte[] rgb = inFlight.take().get();
+                if (rgb != null) rgbOut.write(rgb);
+                memory.release(chunkKb(c, format, budgetKb));
+            }
+            producer.join();
+        } catch (ExecutionException e) {
+            throw new IOException("Falha ao renderizar trecho", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return replay.frameCount();
+    }
+
+    private int chunkKb(int chunk, Format format, int budgetKb) {
+        if (format != Format.RGB) return 0;
+        int frames = Math.min(chunkFrames, replay.frameCount() - chunk * chunkFrames);
+        long kb = (rgbBytes(frames) + 1023) / 1024;
+        return (int) Math.min(budgetKb, kb);
+    }
+
+    private long rgbBytes(int frames) {
+        return (long) frames * width * height * 3;
+    }
+
+    /** Maior trecho RGB que cabe no limite de memória e num único array (no mínimo 1 quadro). */
+    static int maxRgbChunk(int width, int height, int memoryMb) {
+        long frameBytes = (long) width * height * 3;
+        long limit = Math.min((long) Math.max(1, memoryMb) << 20, MAX_ARRAY);
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, limit / frameBytes));
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Uso: --render-replay saída [--replay arquivo | --simulate quadros] [--size LxA] [--threads N] [--format png|rgb] [--chunk quadros] [--memory MB] [--seed N] [--save arquivo]");
+            return;
+        }
+        Path out = Path.of(args[0]);
+        Replay replay = null;
+        int frames = 600;
+        long seed = 42;
+        int width = 800, height = 800;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunk = 0; // 0 = automático
+        int memoryMb = DEFAULT_MEMORY_MB;
+        Format format = Format.PNG;
+        Path saveTo = null;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--replay" -> replay = Replay.read(Path.of(args[++i]));
+                case "--save" -> saveTo = Path.of(args[++i]);
+                case "--simulate" -> frames = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--chunk" -> chunk = Integer.parseInt(args[++i]);
+                case "--memory" -> memoryMb = Integer.parseInt(args[++i]);
+                case "--format" -> format = Format.valueOf(args[++i].toUpperCase());
+                case "--size" -> {
+                    String[] wh = args[++i].toLowerCase().split("x");
+                    width = Integer.parseInt(wh[0]);
+                    height = Integer.parseInt(wh[1]);
+                }
+                default -> System.err.println("Argumento ignorado: " + args[i]);
+            }
+        }
+        if (replay == null) replay = Replay.simulate(PieceGenerator.Kind.BAG, seed, frames);
+        if (saveTo != null) replay.write(saveTo);
+        if (chunk <= 0) {
+            // RGB fica em memória até ser escrito: trechos pequenos o bastante para
+            // 2 por thread caberem em --memory (o aquecimento dos efeitos não desenha, sai barato)
+            long perChunk = (long) memoryMb * (1 << 20) / (2L * threads);
+            chunk = format == Format.RGB ? (int) Math.max(1, Math.min(120, perChunk / ((long) width * height * 3))) : 120;
+        } else if (format == Format.RGB && chunk > maxRgbChunk(width, height, memoryMb)) {
+            // --chunk explícito: um trecho nunca passa do que o semáforo de memória deixa em voo
+            chunk = maxRgbChunk(width, height, memoryMb);
+            System.err.println("--chunk reduzido para " + chunk + " quadros (limite de --memory " + memoryMb + "MB)");
+        }
+
+        long start = System.nanoTime();
+        int rendered = new ReplayRenderer(replay, width, height, chunk).render(format, out, threads, memoryMb);
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d quadros %dx%d em %.2fs (%.1f quadros/s, %d threads) -> %s%n",
+            rendered, width, height, secs, rendered / secs, threads, out);
+    }
+}
@@ -0,0 +1,253 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import javax.swing.SwingUtilities;
+
+/**
+ * Teste de longa duração (quiosques ficam dias ligados): o bot joga e
+ * recomeça milhares de partidas sem janela, pelo mesmo caminho do jogo de
+ * verdade (startGame, Timer, efeitos e desenho num BufferedImage, fim de
+ * partida com estatísticas, score e ranking no SQLite), e de tempos em
+ * tempos mede:
+ * <pre>
+ * heapMb     heap usado logo depois de um GC
+ * fds        descritores de arquivo abertos (Unix)
+ * threads    threads vivas
+ * sqlite     descritores apontando para o banco (Linux, via /proc/self/fd)
+ * effects    partículas e popups vivos no painel
+ * </pre>
+ * Nunca grava no tetris.db: usa um banco temporário, apagado na saída, ou
+ * o arquivo de --db (mantido, para inspecionar). Os milhares de resultados
+ * do bot não tiram jogadores do ranking nem entram nas estatísticas reais.
+ * Descartado o aquecimento, compara o primeiro terço das amostras com o
+ * último: se até o menor valor do fim passa do maior do começo (mais uma
+ * folga), a métrica está crescendo sem parar e o teste falha com o
+ * relatório (código de saída 1). Oscilações e picos isolados não contam.
+ *
+ * Uso: java Tetris --soak [--games N] [--pieces N] [--sample N] [--warmup N] [--db arquivo] [--out arquivo]
+ */
+public final class Soak {
+    static final int FRAME_MS = Replay.FRAME_MS;
+    static final String PLAYER = "(soak)";
+
+    private int games = 1000;
+    private int maxPieces = 100;
+    private int sampleEvery = 20; // partidas entre amostras
+    private int warmupSamples = 3;
+    private boolean database;
+    private String dbPrefix; // caminho do banco; -journal/-wal/-shm começam igual
+
+    private GamePanel panel;
+    private final BufferedImage image = new BufferedImage(800, 800, BufferedImage.TYPE_INT_RGB);
+    private final Bot bot = new Bot();
+    private long pieces, lines, saved;
+    private boolean failed;
+
+    /* -------------------------
+       MÉTRICAS
+       ------------------------- */
+    enum Metric {
+        HEAP_MB("heapMb", 4, 0.10),
+        FDS("fds", 1, 0),
+        THREADS("threads", 1, 0),
+        SQLITE("sqlite", 0, 0),
+        EFFECTS("effects", 0, 0);
+
+        final String label;
+        final double slack;    // folga absoluta
+        final double relative; // folga relativa ao maior valor do começo
+
+        Metric(String label, double slack, double relative) {
+            this.label = label;
+            this.slack = slack;
+            this.relative = relative;
+        }
+    }
+
+    static final class Sample {
+        final int game;
+        final double[] values = new double[Metric.values().length]; // -1 = indisponível
+
+        Sample(int game) {
+            this.game = game;
+        }
+    }
+
+    private final List<Sample> samples = new ArrayList<>();
+
+    private Sample sample(int game) throws Exception {
+        Sample s = new Sample(game);
+        System.gc();
+        System.gc();
+        s.values[Metric.HEAP_MB.ordinal()] = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() / 1048576.0;
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        s.values[Metric.FDS.ordinal()] = os instanceof com.sun.management.UnixOperatingSystemMXBean unix
+            ? unix.getOpenFileDescriptorCount() : -1;
+        s.values[Metric.THREADS.ordinal()] = ManagementFactory.getThreadMXBean().getThreadCount();
+        s.values[Metric.SQLITE.ordinal()] = sqliteHandles(dbPrefix);
+        int[] effects = new int[1];
+        SwingUtilities.invokeAndWait(() -> effects[0] = panel.effectCount());
+        s.values[Metric.EFFECTS.ordinal()] = effects[0];
+        return s;
+    }
+
+    // Descritores abertos para o banco (e seus arquivos -journal/-wal); -1 fora do Linux
+    private static int sqliteHandles(String prefix) {
+        Path fd = Path.of("/proc/self/fd");
+        if (!Files.isDirectory(fd)) return -1;
+        int count = 0;
+        try (DirectoryStream<Path> dir = Files.newDirectoryStream(fd)) {
+            for (Path link : dir) {
+                try {
+                    if (Files.readSymbolicLink(link).toString().startsWith(prefix)) count++;
+                } catch (IOException ignored) {
+                    // descritor fechado durante a listagem
+                }
+            }
+        } catch (IOException e) {
+            return -1;
+        }
+        return count;
+    }
+
+    /* -------------------------
+       PARTIDAS
+       ------------------------- */
+
+    // Uma partida inteira no EDT, como no jogo: peça a peça, com desenho e efeitos
+    private void playGame() {
+        panel.startGame();
+        GameEngine engine = panel.getEngine();
+        while (!engine.isGameOver() && engine.getPiecesPlaced() < maxPieces) {
+            bot.placePiece(engine);
+            engine.tick(FRAME_MS);
+            panel.publishFrame();
+            Graphics2D g = image.createGraphics();
+            panel.paint(g);
+            g.dispose();
+        }
+        pieces += engine.getPiecesPlaced();
+        lines += engine.getTotalLines();
+        if (database) {
+            if (panel.recordResult(PLAYER)) saved++;
+        }
+    }
+
+    // Aponta o DatabaseManager para o banco do teste; sem --db, um temporário apagado na saída
+    private void useDatabase(Path file) throws IOException {
+        if (file == null) {
+            file = Files.createTempFile("tetris-soak-", ".db");
+            for (String suffix : new String[] {"", "-journal", "-wal", "-shm"}) {
+                file.resolveSibling(file.getFileName() + suffix).toFile().deleteOnExit();
+            }
+        }
+        DatabaseManager.useFile(file);
+        // Caminho real, como aparece em /proc/self/fd
+        Path abs = file.toAbsolutePath().normalize();
+        dbPrefix = Files.exists(abs) ? abs.toRealPath().toString() : abs.toString();
+    }
+
+    String run() throws Exception {
+        database = DatabaseManager.isAvailable();
+        SwingUtilities.invokeAndWait(() -> {
+            panel = new GamePanel(Theme.BLUE, PieceGenerator.create(PieceGenerator.Kind.BAG, 1));
+            panel.setSize(image.getWidth(), image.getHeight());
+            panel.handleResize();
+        });
+        long start = System.nanoTime();
+        for (int game = 1; game <= games; game++) {
+            SwingUtilities.invokeAndWait(this::playGame);
+            if (game % sampleEvery == 0 || game == games) {
+                Sample s = sample(game);
+                samples.add(s);
+                StringBuilder line = new StringBuilder("partida ").append(game);
+                for (Metric m : Metric.values()) {
+                    line.append(String.format(Locale.ROOT, " %s=%.1f", m.label, s.values[m.ordinal()]));
+                }
+                System.err.println(line);
+            }
+        }
+        return report((System.nanoTime() - start) / 1e9);
+    }
+
+    /* -------------------------
+       RELATÓRIO
+       ------------------------- */
+
+    // "ok", "crescendo" ou "inconclusivo" (poucas amostras ou métrica indisponível)
+    private String verdict(Metric m, StringBuilder detail) {
+        int from = Math.min(warmupSamples, samples.size());
+        int n = samples.size() - from;
+        if (n < 6) return "inconclusivo";
+        int third = n / 3;
+        double firstMax = Double.NEGATIVE_INFINITY, lastMin = Double.POSITIVE_INFINITY;
+        for (int i = 0; i < third; i++) {
+            double v = samples.get(from + i).values[m.ordinal()];
+            if (v < 0) return "inconclusivo";
+            firstMax = Math.max(firstMax, v);
+        }
+        for (int i = samples.size() - third; i < samples.size(); i++) {
+            lastMin = Math.min(lastMin, samples.get(i).values[m.ordinal()]);
+        }
+        double limit = firstMax + Math.max(m.slack, firstMax * m.relative);
+        detail.append(String.format(Locale.ROOT, "\"firstThirdMax\": %.1f, \"lastThirdMin\": %.1f, \"limit\": %.1f",
+            firstMax, lastMin, limit));
+        return lastMin > limit ? "crescendo" : "ok";
+    }
+
+    private String report(double secs) {
+        StringBuilder json = new StringBuilder("{\n");
+        json.append(String.format(Locale.ROOT,
+            "  \"games\": %d,\n  \"pieces\": %d,\n  \"lines\": %d,\n  \"seconds\": %.1f,\n  \"database\": %b,\n  \"databaseFile\": \"%s\",\n  \"scoresSaved\": %d,\n  \"statsDropped\": %d,\n  \"samples\": %d,\n",
+            games, pieces, lines, secs, database, dbPrefix.replace("\\", "\\\\"), saved, StatsStore.droppedCount(), samples.size()));
+        json.append("  \"metrics\": {\n");
+        Metric[] metrics = Metric.values();
+        for (int k = 0; k < metrics.length; k++) {
+            Metric m = metrics[k];
+            StringBuilder detail = new StringBuilder();
+            String verdict = verdict(m, detail);
+            if (verdict.equals("crescendo")) failed = true;
+            json.append("    \"").append(m.label).append("\": {\"verdict\": \"").append(verdict).append('"');
+            if (detail.length() > 0) json.append(", ").append(detail);
+            json.append(", \"series\": [");
+            for (int i = 0; i < samples.size(); i++) {
+                if (i > 0) json.append(", ");
+                json.append(String.format(Locale.ROOT, "%.1f", samples.get(i).values[m.ordinal()]));
+            }
+            json.append("]}").append(k + 1 < metrics.length ? ",\n" : "\n");
+        }
+        json.append("  },\n  \"passed\": ").append(!failed).append("\n}");
+        return json.toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        System.setProperty("java.awt.headless", "true");
+        Soak soak = new Soak();
+        Path out = null;
+        Path db = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games" -> soak.games = Integer.parseInt(args[++i]);
+                case "--pieces" -> soak.maxPieces = Integer.parseInt(args[++i]);
+                case "--sample" -> soak.sampleEvery = Math.max(1, Integer.parseInt(args[++i]));
+                case "--warmup" -> soak.warmupSamples = Integer.parseInt(args[++i]);
+                case "--out" -> out = Path.of(args[++i]);
+                case "--db" -> db = Path.of(args[++i]);
+                default -> System.err.println("Argumento ignorado: " + args[i]);
+            }
+        }
+        soak.useDatabase(db);
+        String json = soak.run();
+        System.out.println(json);
+        if (out != null) Files.writeString(out, json + System.lineSeparator());
+        System.exit(soak.failed ? 1 : 0);
+    }
+}
@@ -0,0 +1,55 @@
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import javax.swing.*;
+
+/**
+ * Janela de espectador: conecta ao {@link GameServer}, pede uma sessão e
+ * desenha os quadros recebidos num GamePanel somente leitura.
+ *
+ * Uso: java Tetris --spectate host porta sessão
+ */
+public class SpectatorClient {
+
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "127.0.0.1";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7777;
+        int sessionId = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        Socket socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        out.writeByte(GameProtocol.IN_SPECTATE);
+        out.writeInt(sessionId);
+        out.flush();
+
+        GamePanel panel = GamePanel.spectator(Theme.BLUE);
+        SwingUtilities.invokeLater(() -> {
+            JFrame frame = new JFrame("Tetris — espectador (sessão " + sessionId + ")");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+            frame.add(panel);
+            frame.setSize(800, 800);
+            frame.setLocationRelativeTo(null);
+            frame.setVisible(true);
+        });
+
+        // Thread de leitura: cada quadro é copiado e aplicado no EDT
+        Thread reader = new Thread(() -> {
+            try (socket; DataInputStream in = new DataInputStream(socket.getInputStream())) {
+                while (true) {
+                    int len = in.readUnsignedShort();
+                    byte[] frame = new byte[len];
+                    in.readFully(frame);
+                    if (frame[0] != GameProtocol.MSG_SYNC) continue;
+                    SwingUtilities.invokeLater(() -> panel.applySyncFrame(ByteBuffer.wrap(frame, 1, len - 1)));
+                }
+            } catch (IOException e) {
+                System.err.println("Conexão encerrada: " + e.getMessage());
+            }
+        }, "tetris-spectator");
+        reader.setDaemon(true);
+        reader.start();
+    }
+}
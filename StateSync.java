@@ -0,0 +1,308 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Sincronização compacta do estado de uma partida (jogadores remotos e
+ * espectadores).
+ *
+ * Cada quadro leva só o que mudou desde o anterior:
+ * <pre>
+ * u8  tipo (KEYFRAME / DELTA)
+ * u32 tick
+ * u8  campos presentes (F_*)
+ * F_BOARD: u32 máscara das linhas alteradas e, para cada linha em ordem,
+ *          u16 ocupação (bit c = coluna c) + cores das células ocupadas,
+ *          dois nibbles por byte (índice = Tetromino.ordinal() + 1)
+ * F_PIECE: u8 peça atual       F_NEXT: u8 próxima
+ * F_POS:   i8 linha, i8 coluna, u8 rotação
+ * F_SCORE: i32 score, u8 nível, u16 linhas
+ * F_FLAGS: u8 flags (FLAG_GAME_OVER)
+ * </pre>
+ * Um keyframe traz todas as linhas e todos os campos; o decoder ignora
+ * deltas até receber o primeiro keyframe.
+ */
+public final class StateSync {
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+
+    static final int F_BOARD = 1;
+    static final int F_PIECE = 2;
+    static final int F_NEXT = 4;
+    static final int F_POS = 8;
+    static final int F_SCORE = 16;
+    static final int F_FLAGS = 32;
+    static final int F_ALL = F_BOARD | F_PIECE | F_NEXT | F_POS | F_SCORE | F_FLAGS;
+
+    static final int FLAG_GAME_OVER = 1;
+
+    static final int KEYFRAME_INTERVAL = 120; // ticks (~2s a 60Hz)
+
+    private static final int ROWS = GameEngine.ROWS;
+    private static final int COLS = GameEngine.COLS;
+    private static final int NONE = -1;
+
+    // Pior caso: keyframe com todas as linhas cheias
+    static final int MAX_FRAME_SIZE = 1 + 4 + 1 + 4 + ROWS * (2 + COLS / 2) + 1 + 1 + 3 + 7 + 1;
+
+    private StateSync() {}
+
+    /* -------------------------
+       ENCODER: um por partida, roda na thread que avança o jogo
+       ------------------------- */
+    static final class Encoder {
+        private final byte[] sent = new byte[ROWS * COLS]; // cores já enviadas
+        private final byte[] cur = new byte[ROWS * COLS];
+        private int piece = NONE, next = NONE, row, col, rot, score, level, lines, flags;
+        private int lastBoardVersion = NONE;
+        private int sinceKeyframe = KEYFRAME_INTERVAL; // primeiro quadro é keyframe
+        private boolean keyframeRequested;
+
+        void requestKeyframe() {
+            keyframeRequested = true;
+        }
+
+        /**
+         * Escreve em {@code out} o quadro do estado atual. Retorna false (e não
+         * escreve nada) se nada mudou desde o último quadro.
+         */
+        boolean encode(GameEngine engine, int tick, ByteBuffer out) {
+            boolean key = keyframeRequested || ++sinceKeyframe >= KEYFRAME_INTERVAL;
+
+            // Só compara o tabuleiro quando o engine diz que ele mudou (trava, topo estourado, reinício)
+            int changedRows = 0;
+            if (key || engine.getBoardVersion() != lastBoardVersion) {
+                lastBoardVersion = engine.getBoardVersion();
+                for (int r = 0; r < ROWS; r++) {
+                    boolean diff = false;
+                    for (int c = 0; c < COLS; c++) {
+                        byte v = (byte) GameProtocol.colorIndex(engine.cell(r, c));
+                        int i = r * COLS + c;
+                        cur[i] = v;
+                        if (v != sent[i]) diff = true;
+                    }
+                    if (diff || key) changedRows |= 1 << r;
+                }
+            }
+
+            Tetromino curPiece = engine.getCurrent();
+            Tetromino nextPiece = engine.getNext();
+            int p = curPiece == null ? NONE : curPiece.ordinal();
+            int n = nextPiece == null ? NONE : nextPiece.ordinal();
+            int f = engine.isGameOver() ? FLAG_GAME_OVER : 0;
+
+            int fields = 0;
+            if (changedRows != 0) fields |= F_BOARD;
+            if (key || p != piece) fields |= F_PIECE;
+            if (key || n != next) fields |= F_NEXT;
+            if (key || engine.getCurRow() != row || engine.getCurCol() != col || engine.getRotation() != rot) fields |= F_POS;
+            if (key || engine.getScore() != score || engine.getLevel() != level || engine.getTotalLines() != lines) fields |= F_SCORE;
+            if (key || f != flags) fields |= F_FLAGS;
+            if (fields == 0) return false;
+
+            out.put(key ? KEYFRAME : DELTA);
+            out.putInt(tick);
+            out.put((byte) fields);
+            if ((fields & F_BOARD) != 0) {
+                out.putInt(changedRows);
+                for (int r = 0; r < ROWS; r++) {
+                    if ((changedRows & (1 << r)) == 0) continue;
+                    writeRow(out, r);
+                    System.arraycopy(cur, r * COLS, sent, r * COLS, COLS);
+                }
+            }
+            if ((fields & F_PIECE) != 0) out.put((byte) (piece = p));
+            if ((fields & F_NEXT) != 0) out.put((byte) (next = n));
+            if ((fields & F_POS) != 0) {
+                out.put((byte) (row = engine.getCurRow()));
+                out.put((byte) (col = engine.getCurCol()));
+                out.put((byte) (rot = engine.getRotation()));
+            }
+            if ((fields & F_SCORE) != 0) {
+                out.putInt(score = engine.getScore());
+                out.put((byte) (level = engine.getLevel()));
+                out.putShort((short) (lines = engine.getTotalLines()));
+            }
+            if ((fields & F_FLAGS) != 0) out.put((byte) (flags = f));
+
+            if (key) {
+                sinceKeyframe = 0;
+                keyframeRequested = false;
+            }
+            return true;
+        }
+
+        private void writeRow(ByteBuffer out, int r) {
+            int base = r * COLS;
+            int occupancy = 0;
+            for (int c = 0; c < COLS; c++) {
+                if (cur[base + c] != 0) occupancy |= 1 << c;
+            }
+            out.putShort((short) occupancy);
+            // Cores das células ocupadas, dois nibbles por byte
+            int packed = 0;
+            boolean half = false;
+            for (int c = 0; c < COLS; c++) {
+                if (cur[base + c] == 0) continue;
+                if (!half) {
+                    packed = cur[base + c] << 4;
+                } else {
+                    out.put((byte) (packed | cur[base + c]));
+                }
+                half = !half;
+            }
+            if (half) out.put((byte) packed);
+        }
+    }
+
+    /* -------------------------
+       DECODER: espelho do estado do lado de quem assiste
+       ------------------------- */
+    static final class Decoder {
+        private final byte[] cells = new byte[ROWS * COLS];
+        private int piece = NONE, next = NONE, row, col, rot, score, level = 1, lines, flags;
+        private boolean synced;
+        private int tick;
+
+        /** Aplica um quadro; retorna false se foi ignorado (delta antes do primeiro keyframe). */
+        boolean apply(ByteBuffer in) {
+            byte kind = in.get();
+            int frameTick = in.getInt();
+            int fields = in.get() & 0xFF;
+            if (kind == KEYFRAME) {
+                synced = true;
+            } else if (!synced) {
+                return false;
+            }
+            tick = frameTick;
+            if ((fields & F_BOARD) != 0) {
+                int mask = in.getInt();
+                for (int r = 0; r < ROWS; r++) {
+                    if ((mask & (1 << r)) != 0) readRow(in, r);
+                }
+            }
+            if ((fields & F_PIECE) != 0) piece = in.get();
+            if ((fields & F_NEXT) != 0) next = in.get();
+            if ((fields & F_POS) != 0) {
+                row = in.get();
+                col = in.get();
+                rot = in.get();
+            }
+            if ((fields & F_SCORE) != 0) {
+                score = in.getInt();
+                level = in.get() & 0xFF;
+                lines = in.getShort() & 0xFFFF;
+            }
+            if ((fields & F_FLAGS) != 0) flags = in.get();
+            return true;
+        }
+
+        private void readRow(ByteBuffer in, int r) {
+            int occupancy = in.getShort() & 0xFFFF;
+            int base = r * COLS;
+            int packed = 0;
+            boolean half = false;
+            for (int c = 0; c < COLS; c++) {
+                if ((occupancy & (1 << c)) == 0) {
+                    cells[base + c] = 0;
+                    continue;
+                }
+                if (!half) {
+                    packed = in.get() & 0xFF;
+                    cells[base + c] = (byte) (packed >>> 4);
+                } else {
+                    cells[base + c] = (byte) (packed & 0x0F);
+                }
+                half = !half;
+            }
+        }
+
+        boolean isSynced() {
+            return synced;
+        }
+
+        boolean isGameOver() {
+            return (flags & FLAG_GAME_OVER) != 0;
+        }
+
+        int getTick() {
+            return tick;
+        }
+
+        int cell(int r, int c) {
+            return cells[r * COLS + c];
+        }
+
+        /** Copia o estado espelhado para um engine usado só para desenhar. */
+        void copyTo(GameEngine engine) {
+            for (int r = 0; r < ROWS; r++) {
+                for (int c = 0; c < COLS; c++) {
+                    engine.setCell(r, c, GameProtocol.colorOf(cells[r * COLS + c]));
+                }
+            }
+            engine.setPiece(
+                piece == NONE ? null : Tetromino.byOrdinal(piece),
+                next == NONE ? null : Tetromino.byOrdinal(next),
+                row, col, rot
+            );
+            engine.setProgress(score, level, lines);
+            engine.setGameOver(isGameOver());
+        }
+    }
+
+    /* -------------------------
+       VERIFICAÇÃO: java Tetris --check-sync
+       ------------------------- */
+
+    /**
+     * Joga partidas até estourar o topo (peças giradas e largadas no meio,
+ * algumas travam com blocos acima do campo) passando cada
+     * passo pelo Encoder e Decoder, e compara o espelho com o engine a cada
+     * quadro: tabuleiro, fim de partida e peça. Sai com código 1 na primeira
+     * divergência.
+     */
+    static void check(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+        ByteBuffer buf = ByteBuffer.allocate(MAX_FRAME_SIZE);
+        int frames = 0;
+        for (int game = 0; game < games; game++) {
+            GameEngine engine = new GameEngine();
+            engine.reset(PieceGenerator.create(PieceGenerator.Kind.BAG, PieceGenerator.seedFor(11, game)));
+            Encoder encoder = new Encoder();
+            Decoder decoder = new Decoder();
+            for (int tick = 0; ; tick++) {
+                if (tick % 3 == 0) {
+                    // Peça girada logo ao nascer fica com blocos acima da linha 0: trava no topo
+                    for (int i = (tick / 3 + game) % 4; i > 0; i--) engine.rotate();
+                    engine.hardDrop();
+                }
+                engine.tick(16);
+                buf.clear();
+                if (encoder.encode(engine, tick, buf)) {
+                    buf.flip();
+                    decoder.apply(buf);
+                    frames++;
+                }
+                String diff = compare(engine, decoder);
+                if (diff != null) {
+                    System.out.println("FALHOU partida " + game + ", tick " + tick + ": " + diff);
+                    System.exit(1);
+                }
+                if (engine.isGameOver()) break;
+            }
+        }
+        System.out.println("ok: " + games + " partidas até o topo, " + frames + " quadros, espelho igual ao engine");
+    }
+
+    private static String compare(GameEngine engine, Decoder decoder) {
+        for (int r = 0; r < ROWS; r++) {
+            for (int c = 0; c < COLS; c++) {
+                if (decoder.cell(r, c) != GameProtocol.colorIndex(engine.cell(r, c))) {
+                    return "célula (" + r + ", " + c + ") difere" + (engine.isGameOver() ? " no fim da partida" : "");
+                }
+            }
+        }
+        if (decoder.isGameOver() != engine.isGameOver()) return "fim de partida difere";
+        Tetromino cur = engine.getCurrent();
+        if (decoder.piece != (cur == null ? NONE : cur.ordinal())) return "peça atual difere";
+        return null;
+    }
+}
@@ -0,0 +1,383 @@
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Grava as {@link GameStats} de cada partida no SQLite.
+ *
+ * Quem joga só chama {@link #submit}, que coloca uma cópia numa fila
+ * limitada e nunca espera: se a fila estiver cheia o registro é descartado
+ * (e contado). Uma thread própria junta até BATCH_SIZE partidas e grava
+ * tudo numa única transação: as partidas, as peças por tipo e as tabelas de
+ * resumo (por jogador e por dia), atualizadas com UPSERT. As consultas de
+ * médias e totais leem só os resumos, sem varrer a tabela de partidas.
+ *
+ * Tabelas:
+ * <pre>
+ * games        uma linha por partida
+ * game_pieces  (game_id, peça) -> quantidade
+ * player_stats somatórios por jogador
+ * daily_stats  somatórios por dia (fuso local)
+ * </pre>
+ */
+public final class StatsStore {
+    static final int QUEUE_CAPACITY = 4096;
+    static final int BATCH_SIZE = 256;
+    private static final long LINGER_MS = 1000; // espera por mais partidas antes de gravar
+
+    private static final BlockingQueue<Entry> QUEUE = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static Thread writer;
+
+    private StatsStore() {}
+
+    private static final class Entry {
+        final String player;
+        final GameStats stats;
+        Entry(String player, GameStats stats) { this.player = player; this.stats = stats; }
+    }
+
+    /* -------------------------
+       SCHEMA (chamado por DatabaseManager.initSchema)
+       ------------------------- */
+    static void createTables(Statement stmt) throws SQLException {
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS games (
+                id INTEGER PRIMARY KEY,
+                player_name TEXT NOT NULL,
+                played_on TEXT NOT NULL,
+                started_at TIMESTAMP NOT NULL,
+                duration_ms INTEGER NOT NULL,
+                score INTEGER NOT NULL,
+                level INTEGER NOT NULL,
+                lines INTEGER NOT NULL,
+                pieces INTEGER NOT NULL,
+                singles INTEGER NOT NULL,
+                doubles INTEGER NOT NULL,
+                triples INTEGER NOT NULL,
+                tetrises INTEGER NOT NULL,
+                max_height INTEGER NOT NULL,
+                pieces_per_second REAL NOT NULL
+            )
+        """);
+        stmt.execute("CREATE INDEX IF NOT EXISTS games_player ON games(player_name)");
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS game_pieces (
+                game_id INTEGER NOT NULL REFERENCES games(id),
+                piece TEXT NOT NULL,
+                count INTEGER NOT NULL,
+                PRIMARY KEY (game_id, piece)
+            ) WITHOUT ROWID
+        """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS player_stats (
+                player_name TEXT PRIMARY KEY,
+                games INTEGER NOT NULL,
+                total_score INTEGER NOT NULL,
+                best_score INTEGER NOT NULL,
+                total_lines INTEGER NOT NULL,
+                total_pieces INTEGER NOT NULL,
+                total_tetrises INTEGER NOT NULL,
+                total_duration_ms INTEGER NOT NULL
+            )
+        """);
+        stmt.execute("""
+            CREATE TABLE IF NOT EXISTS daily_stats (
+                day TEXT PRIMARY KEY,
+                games INTEGER NOT NULL,
+                total_score INTEGER NOT NULL,
+                total_lines INTEGER NOT NULL,
+                total_pieces INTEGER NOT NULL,
+                total_duration_ms INTEGER NOT NULL
+            )
+        """);
+    }
+
+    /* -------------------------
+       ESCRITA
+       ------------------------- */
+
+    /** Enfileira as estatísticas da partida; nunca bloqueia. */
+    static void submit(String player, GameStats stats) {
+        startWriter();
+        if (!QUEUE.offer(new Entry(player, stats.copy()))) {
+            DROPPED.incrementAndGet();
+        }
+    }
+
+    static long droppedCount() {
+        return DROPPED.get();
+    }
+
+    private static synchronized void startWriter() {
+        if (writer != null) return;
+        writer = new Thread(StatsStore::writeLoop, "tetris-stats");
+        writer.setDaemon(true);
+        writer.start();
+        // Na saída, grava o que ainda estiver na fila
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            writer.interrupt();
+            try {
+                writer.join(2000);
+            } catch (InterruptedException ignored) {
+            }
+        }, "tetris-stats-flush"));
+    }
+
+    private static void writeLoop() {
+        List<Entry> batch = new ArrayList<>(BATCH_SIZE);
+        boolean running = true;
+        while (running) {
+            try {
+                Entry first = QUEUE.take();
+                batch.add(first);
+                // Junta o que chegar logo em seguida, até encher o lote
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(LINGER_MS);
+                while (batch.size() < BATCH_SIZE) {
+                    QUEUE.drainTo(batch, BATCH_SIZE - batch.size());
+                    long left = deadline - System.nanoTime();
+                    if (batch.size() >= BATCH_SIZE || left <= 0) break;
+                    Entry e = QUEUE.poll(left, TimeUnit.NANOSECONDS);
+                    if (e == null) break;
+                    batch.add(e);
+                }
+            } catch (InterruptedException e) {
+                QUEUE.drainTo(batch);
+                running = false;
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private static void writeBatch(List<Entry> batch) {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                insertBatch(conn, batch);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            }
+        } catch (Exception e) {
+            System.err.println("Falha ao gravar estatísticas de " + batch.size() + " partidas: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static void insertBatch(Connection conn, List<Entry> batch) throws SQLException {
+        // Só esta thread insere partidas, então os ids podem ser atribuídos aqui
+        // e as linhas de games e game_pieces vão em lote numa ida só.
+        long nextId;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT IFNULL(MAX(id), 0) FROM games")) {
+            nextId = rs.next() ? rs.getLong(1) + 1 : 1;
+        }
+
+        Map<String, long[]> players = new HashMap<>();
+        Map<String, long[]> days = new HashMap<>();
+        try (PreparedStatement games = conn.prepareStatement("""
+                INSERT INTO games (id, player_name, played_on, started_at, duration_ms, score, level, lines,
+                                   pieces, singles, doubles, triples, tetrises, max_height, pieces_per_second)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """);
+             PreparedStatement pieces = conn.prepareStatement(
+                "INSERT INTO game_pieces (game_id, piece, count) VALUES (?, ?, ?)")) {
+            for (Entry e : batch) {
+                GameStats s = e.stats;
+                long id = nextId++;
+                String day = dayOf(s.startedAtMillis);
+                long duration = s.durationMillis();
+                int i = 1;
+                games.setLong(i++, id);
+                games.setString(i++, e.player);
+                games.setString(i++, day);
+                games.setString(i++, Instant.ofEpochMilli(s.startedAtMillis).toString());
+                games.setLong(i++, duration);
+                games.setInt(i++, s.score);
+                games.setInt(i++, s.level);
+                games.setInt(i++, s.lines);
+                games.setInt(i++, s.pieces);
+                games.setInt(i++, s.singles);
+                games.setInt(i++, s.doubles);
+                games.setInt(i++, s.triples);
+                games.setInt(i++, s.tetrises);
+                games.setInt(i++, s.maxHeight);
+                games.setDouble(i, s.piecesPerSecond());
+                games.addBatch();
+
+                for (Tetromino t : Tetromino.values()) {
+                    int count = s.piecesByType[t.ordinal()];
+                    if (count == 0) continue;
+                    pieces.setLong(1, id);
+                    pieces.setString(2, t.name());
+                    pieces.setInt(3, count);
+                    pieces.addBatch();
+                }
+
+                // Somatórios do lote, um UPSERT por chave
+                long[] p = players.computeIfAbsent(e.player, k -> new long[7]);
+                p[0]++;
+                p[1] += s.score;
+                p[2] = Math.max(p[2], s.score);
+                p[3] += s.lines;
+                p[4] += s.pieces;
+                p[5] += s.tetrises;
+                p[6] += duration;
+                long[] d = days.computeIfAbsent(day, k -> new long[5]);
+                d[0]++;
+                d[1] += s.score;
+                d[2] += s.lines;
+                d[3] += s.pieces;
+                d[4] += duration;
+            }
+            games.executeBatch();
+            pieces.executeBatch();
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement("""
+                INSERT INTO player_stats (player_name, games, total_score, best_score, total_lines,
+                                          total_pieces, total_tetrises, total_duration_ms)
+                VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+                ON CONFLICT(player_name) DO UPDATE SET
+                    games = games + excluded.games,
+                    total_score = total_score + excluded.total_score,
+                    best_score = MAX(best_score, excluded.best_score),
+                    total_lines = total_lines + excluded.total_lines,
+                    total_pieces = total_pieces + excluded.total_pieces,
+                    total_tetrises = total_tetrises + excluded.total_tetrises,
+                    total_duration_ms = total_duration_ms + excluded.total_duration_ms
+            """)) {
+            for (Map.Entry<String, long[]> e : players.entrySet()) {
+                ps.setString(1, e.getKey());
+                long[] v = e.getValue();
+                for (int i = 0; i < v.length; i++) ps.setLong(i + 2, v[i]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+
+        try (PreparedStatement ps = conn.prepareStatement("""
+                INSERT INTO daily_stats (day, games, total_score, total_lines, total_pieces, total_duration_ms)
+                VALUES (?, ?, ?, ?, ?, ?)
+                ON CONFLICT(day) DO UPDATE SET
+                    games = games + excluded.games,
+                    total_score = total_score + excluded.total_score,
+                    total_lines = total_lines + excluded.total_lines,
+                    total_pieces = total_pieces + excluded.total_pieces,
+                    total_duration_ms = total_duration_ms + excluded.total_duration_ms
+            """)) {
+            for (Map.Entry<String, long[]> e : days.entrySet()) {
+                ps.setString(1, e.getKey());
+                long[] v = e.getValue();
+                for (int i = 0; i < v.length; i++) ps.setLong(i + 2, v[i]);
+                ps.addBatch();
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static String dayOf(long epochMillis) {
+        return LocalDate.ofInstant(Instant.ofEpochMilli(epochMillis), ZoneId.systemDefault()).toString();
+    }
+
+    /* -------------------------
+       CONSULTAS (só nas tabelas de resumo)
+       ------------------------- */
+
+    static final class PlayerSummary {
+        final String name;
+        final long games;
+        final long bestScore;
+        final double avgScore, avgLines, avgPieces, piecesPerSecond, tetrisesPerGame;
+
+        PlayerSummary(ResultSet rs) throws SQLException {
+            name = rs.getString("player_name");
+            games = rs.getLong("games");
+            bestScore = rs.getLong("best_score");
+            avgScore = (double) rs.getLong("total_score") / games;
+            avgLines = (double) rs.getLong("total_lines") / games;
+            avgPieces = (double) rs.getLong("total_pieces") / games;
+            tetrisesPerGame = (double) rs.getLong("total_tetrises") / games;
+            long ms = rs.getLong("total_duration_ms");
+            piecesPerSecond = ms > 0 ? rs.getLong("total_pieces") * 1000.0 / ms : 0;
+        }
+    }
+
+    static final class DailyTotal {
+        final String day;
+        final long games, totalScore, totalLines, totalPieces, totalDurationMs;
+
+        DailyTotal(ResultSet rs) throws SQLException {
+            day = rs.getString("day");
+            games = rs.getLong("games");
+            totalScore = rs.getLong("total_score");
+            totalLines = rs.getLong("total_lines");
+            totalPieces = rs.getLong("total_pieces");
+            totalDurationMs = rs.getLong("total_duration_ms");
+        }
+    }
+
+    /** Médias por jogador, ordenadas pela média de pontos; player nulo = todos. */
+    static List<PlayerSummary> playerAverages(String player, int limit) throws Exception {
+        List<PlayerSummary> result = new ArrayList<>();
+        String sql = "SELECT * FROM player_stats"
+            + (player != null ? " WHERE player_name = ?" : "")
+            + " ORDER BY CAST(total_score AS REAL) / games DESC LIMIT ?";
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            int i = 1;
+            if (player != null) ps.setString(i++, player);
+            ps.setInt(i, limit);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) result.add(new PlayerSummary(rs));
+            }
+        }
+        return result;
+    }
+
+    /** Totais dos últimos {@code days} dias com partidas, do mais recente ao mais antigo. */
+    static List<DailyTotal> dailyTotals(int days) throws Exception {
+        List<DailyTotal> result = new ArrayList<>();
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement ps = conn.prepareStatement("SELECT * FROM daily_stats ORDER BY day DESC LIMIT ?")) {
+            ps.setInt(1, days);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) result.add(new DailyTotal(rs));
+            }
+        }
+        return result;
+    }
+
+    /** --stats [jogador]: imprime médias por jogador e os totais diários. */
+    public static void main(String[] args) throws Exception {
+        String player = args.length > 0 ? args[0] : null;
+        System.out.println("jogador              partidas  média pts  melhor  média linhas  peças/s  tetris/partida");
+        for (PlayerSummary p : playerAverages(player, 20)) {
+            System.out.printf("%-20s %9d %10.0f %7d %13.1f %8.2f %15.2f%n",
+                p.name, p.games, p.avgScore, p.bestScore, p.avgLines, p.piecesPerSecond, p.tetrisesPerGame);
+        }
+        System.out.println();
+        System.out.println("dia         partidas  pontos  linhas  peças  tempo(min)");
+        for (DailyTotal d : dailyTotals(14)) {
+            System.out.printf("%s %9d %7d %7d %6d %11.1f%n",
+                d.day, d.games, d.totalScore, d.totalLines, d.totalPieces, d.totalDurationMs / 60000.0);
+        }
+    }
+}
@@ -12,9 +12,10 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.Statement;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.random.RandomGenerator;
 import javax.swing.*;
 
 /**
@@ -27,7 +28,29 @@ import javax.swing.*;
  * Se ocorrer erro ao compilar/rodar, cole a mensagem de erro aqui que eu te ajudo.
  */
 public class Tetris extends JFrame {
+    // Arquivo usado por --resume para retomar a partida após reiniciar
+    static final java.nio.file.Path SNAPSHOT_FILE = java.nio.file.Path.of("tetris.snapshot");
+
+    // Opções da linha de comando do modo com janela
+    static final class Options {
+        PieceGenerator.Kind randomizer = PieceGenerator.Kind.UNIFORM;
+        long seed = System.nanoTime();
+        boolean resume = false;
+        Theme theme = null; // null = pergunta no diálogo
+        boolean startupTime = false;
+        RenderQuality.Tier quality = null; // null = automático
+        double[] aiWeights = null; // não nulo = o bot joga (--ai)
+        long practiceBytes = 0;    // > 0 = modo treino com desfazer (--practice)
+        boolean renderThread = false; // desenha fora do EDT (--render-thread)
+        java.nio.file.Path trainingFile = null; // grava as jogadas para treino (--record-training)
+        long mainStartMillis;
+    }
+
     public Tetris() {
+        this(new Options());
+    }
+
+    Tetris(Options options) {
         setTitle("Tetris — Java");
         setDefaultCloseOperation(EXIT_ON_CLOSE);
         setResizable(true);
@@ -35,10 +58,15 @@ public class Tetris extends JFrame {
         // Configura o tamanho mínimo da janela
         setMinimumSize(new Dimension(600, 650));
         
-        // Seleciona o tema
-        Theme selectedTheme = showThemeDialog();
+        // Seleciona o tema (o banco já está sendo preparado em segundo plano)
+        Theme selectedTheme = options.theme != null ? options.theme : showThemeDialog();
         
-        GamePanel game = new GamePanel(selectedTheme);
+        GamePanel game = new GamePanel(selectedTheme, PieceGenerator.create(options.randomizer, options.seed));
+        game.setRenderQuality(options.quality);
+        if (options.aiWeights != null) game.setAutoplayer(new Bot(options.aiWeights));
+        if (options.practiceBytes > 0) game.enablePractice(options.practiceBytes);
+        if (options.renderThread) game.enableRenderThread();
+        if (options.trainingFile != null) recordTraining(game, options.trainingFile);
         // Adiciona o painel com layout que permite redimensionamento
         setLayout(new BorderLayout());
         add(game, BorderLayout.CENTER);
@@ -48,9 +76,69 @@ public class Tetris extends JFrame {
         setLocationRelativeTo(null);
         setVisible(true);
 
-        game.startGame();
+        if (options.startupTime) {
+            game.onFirstFrame(() -> reportStartup(options.mainStartMillis));
+        }
+        if (options.resume) {
+            enableResume(game);
+        } else {
+            game.startGame();
+        }
+    }
+
+    // Retoma o snapshot salvo (se houver) e passa a salvar a cada segundo e ao fechar
+    private void enableResume(GamePanel game) {
+        GameSnapshot snapshot = new GameSnapshot();
+        if (!snapshot.load(game, SNAPSHOT_FILE)) {
+            game.startGame();
+        }
+        Runnable save = () -> {
+            try {
+                snapshot.save(game, SNAPSHOT_FILE);
+            } catch (java.io.IOException ex) {
+                ex.printStackTrace();
+            }
+        };
+        new Timer(1000, e -> save.run()).start();
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                save.run();
+            }
+        });
     }
     
+    // Grava cada peça travada no arquivo de treino; fecha (gravando o último bloco) ao fechar a janela
+    private void recordTraining(GamePanel game, java.nio.file.Path file) {
+        TrainingData.Writer writer;
+        try {
+            writer = new TrainingData.Writer(file, false);
+        } catch (java.io.IOException ex) {
+            ex.printStackTrace();
+            return;
+        }
+        game.getEngine().setTrainingLog(writer);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                try {
+                    writer.close();
+                } catch (java.io.IOException ex) {
+                    ex.printStackTrace();
+                }
+            }
+        });
+    }
+
+    // Tempo até o primeiro quadro desenhado; sai em seguida (usado também para gerar o arquivo CDS)
+    private static void reportStartup(long mainStartMillis) {
+        long now = System.currentTimeMillis();
+        long jvmStart = java.lang.management.ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.out.printf("{\"jvmToMainMs\": %d, \"mainToFirstFrameMs\": %d, \"timeToFirstFrameMs\": %d}%n",
+            mainStartMillis - jvmStart, now - mainStartMillis, now - jvmStart);
+        System.exit(0);
+    }
+
     private Theme showThemeDialog() {
         Object[] options = {Theme.BLUE.name, Theme.WHITE.name, Theme.BLACK.name};
         int n = JOptionPane.showOptionDialog(
@@ -72,8 +160,78 @@ public class Tetris extends JFrame {
         };
     }
 
-    public static void main(String[] args) {
-        SwingUtilities.invokeLater(Tetris::new);
+    // Uso: java Tetris [--randomizer uniform|bag|history] [--seed N] [--resume]
+    //                  [--theme azul|branco|preto] [--startup-time]
+    //                  [--quality auto|full|noglow|static|flat] [--ai [pesos]]
+    //                  [--practice [MB de histórico]] [--render-thread] [--record-training arquivo]
+    //      java Tetris --server [porta]
+    //      java Tetris --load N [host porta]
+    //      java Tetris --spectate host porta sessão
+    //      java Tetris --check-sync [partidas] (ver StateSync)
+    //      java Tetris --render-replay saída [opções] (ver ReplayRenderer)
+    //      java Tetris --stats [opções] (ver StatsStore)
+    //      java Tetris --train [opções] (ver Trainer)
+    //      java Tetris --bench [opções] (ver Benchmark)
+    //      java Tetris --boards N [opções] (ver MultiBoardView)
+    //      java Tetris --export-training arquivo [opções] | --training-scan arquivo (ver TrainingData)
+    //      java Tetris --soak [opções] (ver Soak)
+    //      java Tetris --export-scores arquivo | --import-scores arquivo [opções] | --check-score-parsers (ver HighscoreTransfer)
+    public static void main(String[] args) throws Exception {
+        long mainStart = System.currentTimeMillis();
+        // Modos sem interface: o restante dos argumentos vai para o modo
+        if (args.length > 0) {
+            String[] rest = java.util.Arrays.copyOfRange(args, 1, args.length);
+            switch (args[0]) {
+                case "--server" -> { GameServer.main(rest); return; }
+                case "--load" -> { LoadGenerator.main(rest); return; }
+                case "--spectate" -> { SpectatorClient.main(rest); return; }
+                case "--render-replay" -> { ReplayRenderer.main(rest); return; }
+                case "--stats" -> { StatsStore.main(rest); return; }
+                case "--train" -> { Trainer.main(rest); return; }
+                case "--bench" -> { Benchmark.main(rest); return; }
+                case "--boards" -> { MultiBoardView.main(rest); return; }
+                case "--movegen-bench" -> { PlacementGenerator.main(rest); return; }
+                case "--export-training" -> { TrainingData.main(rest); return; }
+                case "--training-scan" -> { TrainingData.scan(rest); return; }
+                case "--soak" -> { Soak.main(rest); return; }
+                case "--export-scores" -> { HighscoreTransfer.exportCommand(rest); return; }
+                case "--import-scores" -> { HighscoreTransfer.importCommand(rest); return; }
+                case "--check-score-parsers" -> { HighscoreTransfer.checkParsers(rest); return; }
+                case "--check-sync" -> { StateSync.check(rest); return; }
+                default -> { }
+            }
+        }
+
+        Options options = new Options();
+        options.mainStartMillis = mainStart;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--randomizer" -> options.randomizer = PieceGenerator.Kind.parse(args[++i]);
+                case "--seed" -> options.seed = Long.parseLong(args[++i]);
+                case "--resume" -> options.resume = true;
+                case "--theme" -> options.theme = Theme.parse(args[++i]);
+                case "--startup-time" -> options.startupTime = true;
+                case "--render-thread" -> options.renderThread = true;
+                case "--record-training" -> options.trainingFile = java.nio.file.Path.of(args[++i]);
+                case "--quality" -> options.quality = args[++i].equalsIgnoreCase("auto") ? null : RenderQuality.Tier.parse(args[i]);
+                case "--practice" -> options.practiceBytes = i + 1 < args.length && !args[i + 1].startsWith("--")
+                    ? Long.parseLong(args[++i]) << 20 : BoardHistory.DEFAULT_MAX_BYTES;
+                case "--ai" -> {
+                    // Arquivo de pesos opcional; sem ele usa bot.weights (se existir) ou os padrões
+                    java.nio.file.Path weights = i + 1 < args.length && !args[i + 1].startsWith("--")
+                        ? java.nio.file.Path.of(args[++i]) : java.nio.file.Path.of("bot.weights");
+                    options.aiWeights = java.nio.file.Files.isRegularFile(weights)
+                        ? Bot.readWeights(weights) : Bot.DEFAULT_WEIGHTS;
+                }
+                default -> System.err.println("Argumento ignorado: " + args[i]);
+            }
+        }
+        if (options.startupTime && options.theme == null) options.theme = Theme.BLUE; // sem diálogo na medição
+
+        // Schema e highscores carregam enquanto o Swing sobe e o diálogo de tema está aberto
+        DatabaseManager.initAsync();
+        DatabaseManager.prefetchTopScores();
+        SwingUtilities.invokeLater(() -> new Tetris(options));
     }
 }
 
@@ -108,6 +266,13 @@ enum Theme {
         this.valueColor = valueColor;
         this.instructColor = instructColor;
     }
+
+    static Theme parse(String s) {
+        for (Theme t : values()) {
+            if (t.name.equalsIgnoreCase(s) || t.name().equalsIgnoreCase(s)) return t;
+        }
+        throw new IllegalArgumentException("Tema desconhecido: " + s);
+    }
 }
 
 /* -------------------------
@@ -115,51 +280,101 @@ enum Theme {
    ------------------------- */
 class GamePanel extends JPanel {
     // GRID
-    private final int COLS = 10;
-    private final int ROWS = 20;
-    private int cellSize = 30; // Não é mais final para permitir redimensionamento
+    private final int COLS = GameEngine.COLS;
+    private final int ROWS = GameEngine.ROWS;
+    private int sidePanelWidth = 320;
+
+    // Medidas calculadas no EDT (handleResize) e lidas uma vez por quadro por quem desenha
+    static final class Layout {
+        final int cellSize, fieldMarginX, fieldMarginY, width, height;
+
+        Layout(int cellSize, int fieldMarginX, int fieldMarginY, int width, int height) {
+            this.cellSize = cellSize;
+            this.fieldMarginX = fieldMarginX;
+            this.fieldMarginY = fieldMarginY;
+            this.width = width;
+            this.height = height;
+        }
+    }
+    private volatile Layout layout = new Layout(30, 20, 10, 0, 0);
+    // Cópia do layout para o quadro sendo desenhado (só quem desenha)
+    private int cellSize = 30;
     private int fieldMarginX = 20;
     private int fieldMarginY = 10;
-    private int sidePanelWidth = 320;
+    private int viewWidth, viewHeight;
     
     // THEME
     private Theme theme;
 
-    // GAME STATE
-    private Color[][] wall; // grid of placed blocks
-    private Tetromino current;
-    private Tetromino next;
-    private int curRow, curCol, rotation;
-    private Timer timer;
-    private int dropDelay = 600; // ms, will decrease with levels
+    // GAME STATE (regras ficam no GameEngine)
+    private final GameEngine engine = new GameEngine();
+    private Timer timer;          // criado uma vez; cada partida só reprograma
+    private Timer restartTimer;   // recomeço automático do modo --ai
+    private long lastDropNanos; // fase do Timer, gravada no snapshot
     private boolean isPaused = false;
-    private boolean isGameOver = false;
+    // Highscores (lista imutável, trocada inteira)
+    private volatile java.util.List<DatabaseManager.ScoreEntry> highscores = java.util.List.of();
 
-    // SCORE / LEVEL
-    private int score = 0;
-    private int level = 1;
-    private int totalLines = 0;
-    // Highscores
-    private java.util.List<ScoreEntry> highscores = new java.util.ArrayList<>();
+    // Estado publicado para o desenho: um RenderFrame novo a cada passo da lógica
+    private volatile RenderFrame frame;
+    private long frameSequence;
+    // Não nulo = desenha na thread "tetris-render" (--render-thread)
+    private FrameRenderer renderer;
 
     // VISUAL
     private final Font uiFont = new Font("Segoe UI", Font.BOLD, 14);
     private final Font bigFont = new Font("Segoe UI", Font.BOLD, 26);
     private final VisualEffects effects = new VisualEffects();
+    // Nível de qualidade ajustado pelo tempo de cada quadro
+    private final RenderQuality quality = new RenderQuality();
+    private RenderQuality.Tier tier = RenderQuality.Tier.FULL;
+    private java.awt.image.BufferedImage staticBackground; // fundo em cache (níveis sem animação)
     private float pieceDropProgress = 0f;
 
-    private final Random rand = new Random();
+    // Cada partida usa um fluxo derivado (split) do gerador raiz
+    private final PieceGenerator pieceGenerator;
+
+    // Espectador: só desenha o estado recebido, sem controles nem Timer
+    private final boolean spectator;
+    private StateSync.Decoder syncDecoder;
+
+    // Eventos do engine; os efeitos visuais consomem no EDT, a cada quadro
+    private final GameEvents events = new GameEvents(256);
+    private final GameEvents.Subscriber effectsFeed = events.subscribe();
+    private final GameEvents.Handler effectsHandler = this::addEffects;
+
+    // Chamado uma vez depois do primeiro paintComponent (medição de startup)
+    private Runnable firstFrameCallback;
+
+    // Modo treino (--practice): desfazer/refazer jogadas, sem ranking
+    private BoardHistory history;
+    private volatile String[] hints = HINTS;
+
+    // Modo --ai: o bot manda um comando por passo do botTimer
+    private Bot autoplayer;
+    private Timer botTimer;
 
     public GamePanel() {
         this(Theme.BLUE);
     }
-    
+
     public GamePanel(Theme selectedTheme) {
+        this(selectedTheme, PieceGenerator.create(PieceGenerator.Kind.UNIFORM, System.nanoTime()));
+    }
+    
+    public GamePanel(Theme selectedTheme, PieceGenerator generator) {
+        this(selectedTheme, generator, false);
+    }
+
+    private GamePanel(Theme selectedTheme, PieceGenerator generator, boolean spectator) {
         this.theme = selectedTheme;
+        this.pieceGenerator = generator;
+        this.spectator = spectator;
         setBackground(theme.bgMain);
         setFocusable(true);
-        initControls();
-        initGrid();
+        if (!spectator) initControls();
+        initEngineListener();
+        publishFrame();
         // Adiciona listener para redimensionamento
         addComponentListener(new ComponentAdapter() {
             @Override
@@ -180,56 +395,205 @@ class GamePanel extends JPanel {
         
         // Usa o menor valor para manter o aspecto quadrado
         int newCellSize = Math.max(20, Math.min(cellByWidth, cellByHeight));
-        cellSize = Math.min(newCellSize, 50); // Limita o tamanho máximo
+        int size = Math.min(newCellSize, 50); // Limita o tamanho máximo
         
         // Recentraliza o campo
-        int fieldW = COLS * cellSize;
-        int fieldH = ROWS * cellSize;
-        fieldMarginX = Math.max(10, (getWidth() - fieldW - sidePanelWidth) / 2);
-        fieldMarginY = Math.max(10, (getHeight() - fieldH) / 2);
+        int fieldW = COLS * size;
+        int fieldH = ROWS * size;
+        layout = new Layout(size,
+            Math.max(10, (getWidth() - fieldW - sidePanelWidth) / 2),
+            Math.max(10, (getHeight() - fieldH) / 2),
+            getWidth(), getHeight());
         
-        repaint();
+        requestFrame();
+    }
+
+    // Publica o estado atual para o desenho e pede um quadro; chamar depois de cada passo da lógica
+    void publishFrame() {
+        frame = RenderFrame.capture(engine, isPaused, ++frameSequence);
+    }
+
+    private void stateChanged() {
+        publishFrame();
+        requestFrame();
+    }
+
+    private void requestFrame() {
+        if (renderer != null) {
+            renderer.requestFrame();
+        } else {
+            repaint();
+        }
+    }
+
+    // Passa a desenhar na thread "tetris-render"; o EDT só mostra a imagem pronta
+    void enableRenderThread() {
+        if (renderer != null) return;
+        renderer = new FrameRenderer(this);
+        renderer.start();
+    }
+
+    // Efeitos ainda animando: quem desenha continua pedindo quadros
+    boolean isAnimating() {
+        return effects.isActive();
+    }
+
+    // Partículas e popups vivos (amostrado pelo --soak)
+    int effectCount() {
+        return effects.count();
     }
 
-    private void initGrid() {
-        wall = new Color[ROWS][COLS];
+    // Liga os avisos do engine ao Timer, ao histórico e ao fim de jogo; os efeitos vêm do fluxo de eventos
+    private void initEngineListener() {
+        engine.setEvents(events, 0);
+        engine.setListener(new GameEngine.Listener() {
+            @Override
+            public void levelChanged(int level, int dropDelay) {
+                if (timer != null) timer.setDelay(dropDelay);
+            }
+
+            @Override
+            public void pieceSpawned() {
+                if (history != null) history.record(engine);
+            }
+
+            @Override
+            public void gameOver() {
+                if (timer != null) timer.stop();
+                stateChanged();
+                // Trigger end-of-game flow: ask for player name and save score
+                SwingUtilities.invokeLater(() -> handleGameOver());
+            }
+        });
+    }
+
+    // Painel somente leitura, alimentado por quadros do StateSync
+    static GamePanel spectator(Theme theme) {
+        GamePanel panel = new GamePanel(theme, null, true);
+        panel.syncDecoder = new StateSync.Decoder();
+        return panel;
+    }
+
+    // Aplica um quadro recebido (chamar no EDT)
+    void applySyncFrame(java.nio.ByteBuffer frame) {
+        if (syncDecoder.apply(frame)) {
+            syncDecoder.copyTo(engine);
+            stateChanged();
+        }
+    }
+
+    // Efeitos de linha limpa e popup de pontuação, na posição atual do campo.
+    // A semente vem da jogada e da linha: o mesmo replay gera as mesmas partículas
+    private void addEffects(GameEvents.Event e) {
+        if (e.type != GameEvents.LINES_CLEARED) return;
+        Layout l = layout;
+        Color[] colors = new Color[COLS];
+        for (int c = 0; c < COLS; c++) colors[c] = GameEvents.colorAt(e.payload, c);
+        int lineY = l.fieldMarginY + e.a * l.cellSize;
+        effects.addLineEffect(lineY, COLS * l.cellSize, colors, (long) e.d * ROWS + e.a);
+        effects.addScorePopup(l.fieldMarginX + (COLS * l.cellSize) / 2, lineY, e.c);
+    }
+
+    // Eventos desde o último quadro viram efeitos; depois atualiza os efeitos visuais.
+    // Chamado a cada quadro desenhado; o render de replays também chama sem desenhar
+    void advanceEffects() {
+        effectsFeed.poll(effectsHandler, Integer.MAX_VALUE);
+        effects.update();
+    }
+
+    // Zera os efeitos (e descarta eventos pendentes) com o fundo no quadro startFrame
+    void resetEffects(long startFrame) {
+        effectsFeed.poll(e -> { }, Integer.MAX_VALUE);
+        effects.reset(startFrame);
+    }
+
+    // Trava a qualidade em um nível (null = automático)
+    void setRenderQuality(RenderQuality.Tier fixed) {
+        quality.setFixed(fixed);
+    }
+
+    // Usado pelas ferramentas sem janela (render de replays) para avançar o estado
+    GameEngine getEngine() {
+        return engine;
+    }
+
+    void onFirstFrame(Runnable callback) {
+        firstFrameCallback = callback;
+    }
+
+    void enablePractice(long maxHistoryBytes) {
+        history = new BoardHistory(maxHistoryBytes);
+        String[] withUndo = java.util.Arrays.copyOf(HINTS, HINTS.length + 1);
+        withUndo[HINTS.length] = "Z / Y : desfazer / refazer";
+        hints = withUndo;
+    }
+
+    // Liga o jogador automático; os comandos passam pelas mesmas regras do teclado
+    void setAutoplayer(Bot bot) {
+        autoplayer = bot;
+        if (botTimer != null) botTimer.stop();
+        botTimer = new Timer(60, e -> {
+            if (isPaused || engine.isGameOver()) return;
+            autoplayer.playStep(engine);
+            stateChanged();
+        });
+        botTimer.start();
     }
 
     public void startGame() {
+        if (spectator) return;
         isPaused = false;
-        isGameOver = false;
-        score = 0;
-        level = 1;
-        totalLines = 0;
-        dropDelay = 600;
-        initGrid();
-        next = Tetromino.random(rand);
-        spawnPiece();
+        if (timer != null) timer.stop();
+        if (history != null) history.clear();
+        engine.reset(pieceGenerator.split());
+        stateChanged();
     // load highscores when game starts
     loadHighscores();
 
-        if (timer != null && timer.isRunning()) timer.stop();
-        timer = new Timer(dropDelay, e -> {
-            if (!isPaused && !isGameOver) {
-                dropOneRow();
-            }
-        });
-        timer.start();
+        if (engine.isGameOver()) return;
+        startTimer(engine.getDropDelay());
     }
 
-    private void spawnPiece() {
-        current = next != null ? next : Tetromino.random(rand);
-        next = Tetromino.random(rand);
-        rotation = 0;
-        curRow = -current.getTopEmptyRows(rotation);
-        curCol = COLS / 2 - 2;
-        if (!isValidPosition(curRow, curCol, rotation)) {
-            isGameOver = true;
-            if (timer != null) timer.stop();
-            // Trigger end-of-game flow: ask for player name and save score
-            SwingUtilities.invokeLater(() -> handleGameOver());
+    private void startTimer(int initialDelay) {
+        if (timer == null) {
+            timer = new Timer(engine.getDropDelay(), e -> {
+                if (!isPaused && !engine.isGameOver()) {
+                    lastDropNanos = System.nanoTime();
+                    dropOneRow();
+                }
+            });
         }
-        repaint();
+        timer.stop();
+        timer.setDelay(engine.getDropDelay());
+        timer.setInitialDelay(initialDelay);
+        lastDropNanos = System.nanoTime() - (engine.getDropDelay() - initialDelay) * 1_000_000L;
+        timer.start();
+    }
+
+    // Grava pausa, fase do Timer, gerador raiz e estado do engine (ver GameSnapshot)
+    void saveSnapshot(java.nio.ByteBuffer out) {
+        out.put((byte) (isPaused ? 1 : 0));
+        long phase = (System.nanoTime() - lastDropNanos) / 1_000_000L;
+        out.putInt((int) Math.max(0, Math.min(engine.getDropDelay(), phase)));
+        pieceGenerator.saveState(out);
+        engine.saveState(out);
+    }
+
+    // Retorna false se o snapshot não serve (outro randomizer ou partida já encerrada)
+    boolean restoreSnapshot(java.nio.ByteBuffer in) {
+        boolean paused = in.get() != 0;
+        int phase = in.getInt();
+        if (in.get(in.position()) != pieceGenerator.kind().ordinal()) return false;
+        pieceGenerator.loadState(in);
+        engine.loadState(in);
+        if (engine.isGameOver()) return false;
+
+        if (timer != null) timer.stop();
+        isPaused = paused;
+        loadHighscores();
+        startTimer(Math.max(0, engine.getDropDelay() - phase));
+        stateChanged();
+        return true;
     }
 
     private void initControls() {
@@ -243,6 +607,8 @@ class GamePanel extends JPanel {
         im.put(KeyStroke.getKeyStroke("SPACE"), "hardDrop");
         im.put(KeyStroke.getKeyStroke("P"), "pause");
         im.put(KeyStroke.getKeyStroke("ENTER"), "restart");
+        im.put(KeyStroke.getKeyStroke("Z"), "undo");
+        im.put(KeyStroke.getKeyStroke("Y"), "redo");
 
         am.put("left", new AbstractAction() { public void actionPerformed(ActionEvent e) { move(-1); }});
         am.put("right", new AbstractAction() { public void actionPerformed(ActionEvent e) { move(1); }});
@@ -250,143 +616,112 @@ class GamePanel extends JPanel {
         am.put("rotate", new AbstractAction() { public void actionPerformed(ActionEvent e) { rotate(); }});
         am.put("hardDrop", new AbstractAction() { public void actionPerformed(ActionEvent e) { hardDrop(); }});
         am.put("pause", new AbstractAction() { public void actionPerformed(ActionEvent e) { togglePause(); }});
-        am.put("restart", new AbstractAction() { public void actionPerformed(ActionEvent e) { if (isGameOver) startGame(); }});
+        am.put("restart", new AbstractAction() { public void actionPerformed(ActionEvent e) { if (engine.isGameOver()) startGame(); }});
+        am.put("undo", new AbstractAction() { public void actionPerformed(ActionEvent e) { rewind(true); }});
+        am.put("redo", new AbstractAction() { public void actionPerformed(ActionEvent e) { rewind(false); }});
+    }
+
+    // Desfaz ou refaz uma jogada no modo treino; religa o Timer se a partida tinha acabado
+    private void rewind(boolean undo) {
+        if (history == null) return;
+        boolean changed = undo ? history.undo(engine) : history.redo(engine);
+        if (!changed) return;
+        if (timer == null || !timer.isRunning()) {
+            startTimer(engine.getDropDelay());
+        } else {
+            timer.setDelay(engine.getDropDelay()); // o nível pode ter voltado
+        }
+        stateChanged();
     }
 
     private void togglePause() {
-        if (isGameOver) return;
+        if (engine.isGameOver()) return;
         isPaused = !isPaused;
-        repaint();
+        stateChanged();
     }
 
     private void move(int dx) {
-        if (isPaused || isGameOver) return;
-        if (isValidPosition(curRow, curCol + dx, rotation)) {
-            curCol += dx;
-            repaint();
+        if (isPaused || engine.isGameOver()) return;
+        if (engine.move(dx)) {
+            stateChanged();
         }
     }
 
     private void softDrop() {
-        if (isPaused || isGameOver) return;
+        if (isPaused || engine.isGameOver()) return;
         dropOneRow();
     }
 
     private void hardDrop() {
-        if (isPaused || isGameOver) return;
-        while (isValidPosition(curRow + 1, curCol, rotation)) {
-            curRow++;
-        }
-        lockPiece();
+        if (isPaused || engine.isGameOver()) return;
+        engine.hardDrop();
+        stateChanged();
     }
 
     private void dropOneRow() {
-        if (isValidPosition(curRow + 1, curCol, rotation)) {
-            curRow++;
-        } else {
-            lockPiece();
-        }
-        repaint();
+        engine.dropOneRow();
+        stateChanged();
     }
 
     private void rotate() {
-        if (isPaused || isGameOver) return;
-        int newRot = (rotation + 1) % current.rotationCount();
-        int[] kicks = {0, -1, 1, -2, 2};
-        for (int k : kicks) {
-            if (isValidPosition(curRow, curCol + k, newRot)) {
-                rotation = newRot;
-                curCol += k;
-                repaint();
-                return;
-            }
-        }
-        if (isValidPosition(curRow - 1, curCol, newRot)) {
-            rotation = newRot;
-            curRow -= 1;
-            repaint();
+        if (isPaused || engine.isGameOver()) return;
+        if (engine.rotate()) {
+            stateChanged();
         }
     }
 
-    private boolean isValidPosition(int r, int c, int rot) {
-        for (Point p : current.getBlocks(rot)) {
-            int rr = r + p.y;
-            int cc = c + p.x;
-            if (cc < 0 || cc >= COLS) return false;
-            if (rr >= ROWS) return false;
-            if (rr >= 0 && wall[rr][cc] != null) return false;
-        }
-        return true;
-    }
-
-    private void lockPiece() {
-        for (Point p : current.getBlocks(rotation)) {
-            int rr = curRow + p.y;
-            int cc = curCol + p.x;
-            if (rr >= 0 && rr < ROWS && cc >= 0 && cc < COLS) {
-                wall[rr][cc] = current.getColor();
-            } else if (rr < 0) {
-                isGameOver = true;
-                if (timer != null) timer.stop();
-                repaint();
-                // Trigger end-of-game flow: ask for player name and save score
-                SwingUtilities.invokeLater(() -> handleGameOver());
-                return;
-            }
-        }
-        int cleared = clearLines();
-        if (cleared > 0) {
-            int points;
-            switch (cleared) {
-                case 1 -> points = 40;
-                case 2 -> points = 100;
-                case 3 -> points = 300;
-                case 4 -> points = 1200;
-                default -> points = cleared * 300;
-            }
-            score += points * level;
-            totalLines += cleared;
-            int newLevel = totalLines / 10 + 1;
-            if (newLevel > level) {
-                level = newLevel;
-                dropDelay = Math.max(80, 600 - (level - 1) * 40);
-                if (timer != null) timer.setDelay(dropDelay);
-            }
-        }
-        spawnPiece();
-    }
-
     // Called on the EDT when the game ends. Shows a dialog to enter player name and saves the score.
     private void handleGameOver() {
+        if (GraphicsEnvironment.isHeadless()) return; // render de replays e --bench: sem diálogo
+        if (history != null) return; // treino não entra no ranking; Z volta antes do fim
+        if (autoplayer != null) {
+            // Demonstração: registra as estatísticas e recomeça sozinho
+            StatsStore.submit("(bot)", engine.getStats());
+            if (restartTimer == null) {
+                restartTimer = new Timer(3000, e -> startGame());
+                restartTimer.setRepeats(false);
+            }
+            restartTimer.restart();
+            return;
+        }
         // Simple input dialog for player name
         String name = JOptionPane.showInputDialog(this, "Game Over! Enter your name:", "Save Score", JOptionPane.PLAIN_MESSAGE);
-        if (name != null) {
-            name = name.trim();
-            if (name.isEmpty()) name = "(anonymous)";
-            boolean ok = saveScore(name, score);
-            if (ok) {
-                // refresh highscores in memory so UI updates
-                loadHighscores();
-                JOptionPane.showMessageDialog(this, "Score saved!", "Saved", JOptionPane.INFORMATION_MESSAGE);
-            } else {
-                JOptionPane.showMessageDialog(this, "Failed to save score.", "Error", JOptionPane.ERROR_MESSAGE);
-            }
+        if (name == null) {
+            // Estatísticas vão para o banco em segundo plano, mesmo sem salvar o score
+            StatsStore.submit("(anonymous)", engine.getStats());
+            return;
+        }
+        name = name.trim();
+        if (name.isEmpty()) name = "(anonymous)";
+        if (recordResult(name)) {
+            JOptionPane.showMessageDialog(this, "Score saved!", "Saved", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this, "Failed to save score.", "Error", JOptionPane.ERROR_MESSAGE);
         }
     }
 
+    // Fim de partida sem diálogo (também usado pelo --soak): estatísticas, score e ranking atualizado
+    boolean recordResult(String name) {
+        StatsStore.submit(name, engine.getStats());
+        boolean ok = saveScore(name, engine.getScore());
+        // refresh highscores in memory so UI updates
+        if (ok) loadHighscores();
+        return ok;
+    }
+
     // Salva o score no banco de dados SQLite
     private boolean saveScore(String name, int score) {
-        try (Connection conn = DatabaseManager.getConnection()) {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                 "INSERT INTO highscores (player_name, score) VALUES (?, ?)"
+             );
+             Statement stmt = conn.createStatement()) {
             // Insere o novo score
-            PreparedStatement pstmt = conn.prepareStatement(
-                "INSERT INTO highscores (player_name, score) VALUES (?, ?)"
-            );
             pstmt.setString(1, name);
             pstmt.setInt(2, score);
             pstmt.executeUpdate();
             
             // Mantém apenas os top 5 scores
-            Statement stmt = conn.createStatement();
             stmt.execute("""
                 DELETE FROM highscores 
                 WHERE id NOT IN (
@@ -395,9 +730,6 @@ class GamePanel extends JPanel {
                     LIMIT 5
                 )
             """);
-            
-            // Atualiza a lista em memória
-            loadHighscores();
             return true;
         } catch (Exception e) {
             e.printStackTrace();
@@ -405,102 +737,82 @@ class GamePanel extends JPanel {
         }
     }
 
-    // Highscore helpers
-    private static class ScoreEntry {
-        final String name;
-        final int score;
-        ScoreEntry(String n, int s) { name = n; score = s; }
+    // Carrega os highscores fora do EDT e atualiza a tela quando chegarem
+    private void loadHighscores() {
+        DatabaseManager.topScoresAsync().thenAccept(list -> SwingUtilities.invokeLater(() -> {
+            highscores = list;
+            requestFrame();
+        }));
     }
 
-    private void loadHighscores() {
-        highscores.clear();
-        try (Connection conn = DatabaseManager.getConnection()) {
-            Statement stmt = conn.createStatement();
-            ResultSet rs = stmt.executeQuery("""
-                SELECT player_name, score 
-                FROM highscores 
-                ORDER BY score DESC 
-                LIMIT 5
-            """);
-            
-            while (rs.next()) {
-                String name = rs.getString("player_name");
-                int score = rs.getInt("score");
-                highscores.add(new ScoreEntry(name, score));
-            }
-        } catch (Exception e) {
-            e.printStackTrace();
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (renderer != null) {
+            java.awt.image.BufferedImage image = renderer.latest();
+            if (image != null) g.drawImage(image, 0, 0, null);
+        } else {
+            render((Graphics2D) g);
         }
-    }
 
-    private int clearLines() {
-        int cleared = 0;
-        for (int r = ROWS - 1; r >= 0; r--) {
-            boolean full = true;
-            List<Color> lineColors = new ArrayList<>();
-            
-            for (int c = 0; c < COLS; c++) {
-                if (wall[r][c] == null) { 
-                    full = false; 
-                    break; 
-                }
-                lineColors.add(wall[r][c]);
-            }
-            
-            if (full) {
-                cleared++;
-                // Adiciona efeitos visuais para a linha eliminada
-                int lineY = fieldMarginY + r * cellSize;
-                effects.addLineEffect(lineY, COLS * cellSize, lineColors.toArray(new Color[0]));
-                
-                // Adiciona popup de pontuação
-                int points = switch(cleared) {
-                    case 1 -> 40;
-                    case 2 -> 100;
-                    case 3 -> 300;
-                    case 4 -> 1200;
-                    default -> cleared * 300;
-                };
-                
-                effects.addScorePopup(
-                    fieldMarginX + (COLS * cellSize) / 2,
-                    lineY,
-                    points
-                );
-                
-                // Move as linhas para baixo
-                for (int rr = r; rr > 0; rr--) {
-                    System.arraycopy(wall[rr - 1], 0, wall[rr], 0, COLS);
-                }
-                for (int cc = 0; cc < COLS; cc++) wall[0][cc] = null;
-                r++; // recheck same index after shift
-            }
+        if (firstFrameCallback != null) {
+            Runnable callback = firstFrameCallback;
+            firstFrameCallback = null;
+            SwingUtilities.invokeLater(callback);
         }
-        return cleared;
     }
 
-    @Override
-    protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+    /**
+     * Desenha o último RenderFrame publicado. Não toca no engine nem no estado
+     * do EDT: roda no paintComponent ou na thread do FrameRenderer, nunca nas
+     * duas (efeitos e qualidade pertencem a quem desenha).
+     */
+    void render(Graphics2D g) {
+        render(g, layout);
+    }
+
+    // Layout publicado pelo EDT; a thread de render dimensiona a imagem por ele (nunca por getWidth)
+    Layout currentLayout() {
+        return layout;
+    }
+
+    // Desenha com o layout informado: o mesmo usado para dimensionar a imagem de destino
+    void render(Graphics2D g, Layout l) {
+        long frameStart = System.nanoTime();
+        RenderFrame f = frame;
+        cellSize = l.cellSize;
+        fieldMarginX = l.fieldMarginX;
+        fieldMarginY = l.fieldMarginY;
+        viewWidth = l.width;
+        viewHeight = l.height;
+        tier = quality.tier();
         Graphics2D g2 = (Graphics2D) g.create();
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY);
-        g2.setRenderingHint(RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_QUALITY);
+        if (tier != RenderQuality.Tier.FLAT) {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setRenderingHint(RenderingHints.KEY_ALPHA_INTERPOLATION, RenderingHints.VALUE_ALPHA_INTERPOLATION_QUALITY);
+            g2.setRenderingHint(RenderingHints.KEY_COLOR_RENDERING, RenderingHints.VALUE_COLOR_RENDER_QUALITY);
+        } else {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+        }
 
-        // Atualiza efeitos visuais
-        effects.update();
+        advanceEffects();
         
-        // Fundo animado
-        Paint old = g2.getPaint();
-        Color bgColor = effects.getBackgroundColor();
-        g2.setPaint(new GradientPaint(
-            0, 0, 
-            bgColor.brighter(), 
-            0, getHeight(), 
-            bgColor.darker()
-        ));
-        g2.fillRect(0, 0, getWidth(), getHeight());
-        g2.setPaint(old);
+        if (tier.ordinal() < RenderQuality.Tier.STATIC_BACKGROUND.ordinal()) {
+            // Fundo animado
+            Paint old = g2.getPaint();
+            Color bgColor = effects.getBackgroundColor();
+            g2.setPaint(new GradientPaint(
+                0, 0, 
+                bgColor.brighter(), 
+                0, viewHeight, 
+                bgColor.darker()
+            ));
+            g2.fillRect(0, 0, viewWidth, viewHeight);
+            g2.setPaint(old);
+        } else {
+            g2.drawImage(staticBackground(), 0, 0, null);
+        }
         
         // playfield
         int fieldW = COLS * cellSize;
@@ -521,7 +833,7 @@ class GamePanel extends JPanel {
         // placed blocks
         for (int r = 0; r < ROWS; r++) {
             for (int c = 0; c < COLS; c++) {
-                Color col = wall[r][c];
+                Color col = f.cell(r, c);
                 if (col != null) {
                     drawBlock(g2, fieldMarginX + c * cellSize, fieldMarginY + r * cellSize, col);
                 }
@@ -529,15 +841,18 @@ class GamePanel extends JPanel {
         }
 
         // current piece + ghost
-        if (current != null && !isGameOver) {
-            int ghostRow = curRow;
-            while (isValidPosition(ghostRow + 1, curCol, rotation)) ghostRow++;
-            for (Point p : current.getBlocks(rotation)) {
+        Tetromino current = f.current;
+        if (current != null && !f.gameOver) {
+            int curRow = f.curRow;
+            int curCol = f.curCol;
+            int rotation = f.rotation;
+            int ghostRow = f.ghostRow;
+            for (Point p : current.blocks(rotation)) {
                 int rr = ghostRow + p.y;
                 int cc = curCol + p.x;
                 if (rr >= 0) drawGhostBlock(g2, fieldMarginX + cc * cellSize, fieldMarginY + rr * cellSize, current.getColor());
             }
-            for (Point p : current.getBlocks(rotation)) {
+            for (Point p : current.blocks(rotation)) {
                 int rr = curRow + p.y;
                 int cc = curCol + p.x;
                 if (rr >= 0) drawBlock(g2, fieldMarginX + cc * cellSize, fieldMarginY + rr * cellSize, current.getColor());
@@ -547,10 +862,11 @@ class GamePanel extends JPanel {
         // side panel
         int sideX = fieldMarginX + fieldW + 20;
         int sideY = fieldMarginY;
-        drawSidePanel(g2, sideX, sideY);
+        drawSidePanel(g2, f, sideX, sideY);
 
         // overlay pause / game over
-        if (isPaused || isGameOver) {
+        boolean isGameOver = f.gameOver;
+        if (f.paused || isGameOver) {
             g2.setColor(new Color(0, 0, 0, 170));
             g2.fillRect(fieldMarginX, fieldMarginY, fieldW, fieldH);
             g2.setColor(Color.WHITE);
@@ -559,7 +875,7 @@ class GamePanel extends JPanel {
             int tw = g2.getFontMetrics().stringWidth(text);
             g2.drawString(text, fieldMarginX + fieldW / 2 - tw / 2, fieldMarginY + fieldH / 2 - 10);
             g2.setFont(uiFont);
-            String sub = isGameOver ? "Press ENTER to restart" : "Press P to resume";
+            String sub = spectator ? "Spectating" : isGameOver ? "Press ENTER to restart" : "Press P to resume";
             int sw = g2.getFontMetrics().stringWidth(sub);
             g2.drawString(sub, fieldMarginX + fieldW / 2 - sw / 2, fieldMarginY + fieldH / 2 + 18);
         }
@@ -568,38 +884,55 @@ class GamePanel extends JPanel {
         drawInstructionsBottomRight(g2);
         
         // Desenha os efeitos visuais por cima de tudo
-        effects.draw(g2);
+        effects.draw(g2, tier == RenderQuality.Tier.FLAT);
         
         g2.dispose();
+        quality.record(System.nanoTime() - frameStart);
+    }
+
+    // Gradiente do fundo com a cor do tema, refeito só quando o painel muda de tamanho
+    private java.awt.image.BufferedImage staticBackground() {
+        int w = Math.max(1, viewWidth);
+        int h = Math.max(1, viewHeight);
+        if (staticBackground == null || staticBackground.getWidth() != w || staticBackground.getHeight() != h) {
+            staticBackground = new java.awt.image.BufferedImage(w, h, java.awt.image.BufferedImage.TYPE_INT_RGB);
+            Graphics2D bg = staticBackground.createGraphics();
+            bg.setPaint(new GradientPaint(0, 0, theme.bgMain.brighter(), 0, h, theme.bgMain.darker()));
+            bg.fillRect(0, 0, w, h);
+            bg.dispose();
+        }
+        return staticBackground;
     }
 
+    private static final String[] HINTS = {
+        "← → : mover",
+        "↑ : rotacionar",
+        "↓ : descer",
+        "SPACE : queda rápida",
+        "P : pausar",
+        "ENTER : reiniciar (game over)"
+    };
+
     // Draw controls/instructions at bottom-right of the panel
     private void drawInstructionsBottomRight(Graphics2D g2) {
-        String[] hints = {
-            "← → : mover",
-            "↑ : rotacionar",
-            "↓ : descer",
-            "SPACE : queda rápida",
-            "P : pausar",
-            "ENTER : reiniciar (game over)"
-        };
+        String[] hints = this.hints;
         g2.setFont(new Font("Segoe UI", Font.PLAIN, 12));
         g2.setColor(theme.instructColor);
         FontMetrics fm = g2.getFontMetrics();
         int lineH = fm.getHeight();
         int totalH = hints.length * lineH;
         int padding = 12;
-        int startY = getHeight() - padding - totalH + fm.getAscent();
+        int startY = viewHeight - padding - totalH + fm.getAscent();
         for (int i = 0; i < hints.length; i++) {
             String s = hints[i];
             int w = fm.stringWidth(s);
-            int x = getWidth() - padding - w;
+            int x = viewWidth - padding - w;
             int y = startY + i * lineH;
             g2.drawString(s, x, y);
         }
     }
 
-    private void drawSidePanel(Graphics2D g2, int x, int y) {
+    private void drawSidePanel(Graphics2D g2, RenderFrame f, int x, int y) {
         g2.setColor(new Color(theme.sidePanel.getRed(), theme.sidePanel.getGreen(), theme.sidePanel.getBlue(), 220));
         // Use sidePanelWidth to drive the actual visual width so it resizes consistently
         int panelWidth = Math.max(200, sidePanelWidth - 20);
@@ -615,31 +948,32 @@ class GamePanel extends JPanel {
         g2.drawString("Score:", x + 10, y + 80);
         g2.setFont(new Font("Consolas", Font.BOLD, 20));
         g2.setColor(theme.valueColor);
-        g2.drawString(String.valueOf(score), x + 10, y + 106);
+        g2.drawString(String.valueOf(f.score), x + 10, y + 106);
 
         g2.setFont(uiFont);
         g2.setColor(theme.labelColor);
         g2.drawString("Level:", x + 10, y + 140);
         g2.setFont(new Font("Consolas", Font.BOLD, 18));
         g2.setColor(theme.valueColor);
-        g2.drawString(String.valueOf(level), x + 10, y + 162);
+        g2.drawString(String.valueOf(f.level), x + 10, y + 162);
 
         g2.setFont(uiFont);
         g2.setColor(theme.labelColor);
         g2.drawString("Lines:", x + 10, y + 192);
         g2.setFont(new Font("Consolas", Font.BOLD, 18));
         g2.setColor(theme.valueColor);
-        g2.drawString(String.valueOf(totalLines), x + 10, y + 214);
+        g2.drawString(String.valueOf(f.lines), x + 10, y + 214);
 
         // Next preview
         g2.setFont(uiFont);
         g2.setColor(theme.instructColor);
         g2.drawString("Next:", x + panelWidth - 100, y + 80);
+        Tetromino next = f.next;
         if (next != null) {
             int previewX = x + panelWidth - 100; // place preview inside the right area of the panel
             int previewY = y + 100;
             int size = 18;
-            for (Point p : next.getBlocks(0)) {
+            for (Point p : next.blocks(0)) {
                 int px = previewX + p.x * size;
                 int py = previewY + p.y * size;
                 drawSmallBlock(g2, px, py, next.getColor());
@@ -647,6 +981,7 @@ class GamePanel extends JPanel {
         }
 
         // Highscores (top 5)
+        java.util.List<DatabaseManager.ScoreEntry> highscores = this.highscores;
         int shown = Math.min(5, highscores.size());
         if (shown > 0) {
             int highscoresStart = y + 240; // start lower so it fits within the taller panel
@@ -657,7 +992,7 @@ class GamePanel extends JPanel {
             g2.setFont(new Font("Consolas", Font.PLAIN, 14));
             int highscoresLineHeight = 18;
             for (int i = 0; i < shown; i++) {
-                ScoreEntry e = highscores.get(i);
+                DatabaseManager.ScoreEntry e = highscores.get(i);
                 String line = String.format("%d. %-10s %5d", i + 1, e.name, e.score);
                 g2.drawString(line, x + 10, highscoresStart + 6 + (i + 1) * highscoresLineHeight);
             }
@@ -665,8 +1000,17 @@ class GamePanel extends JPanel {
     }
 
     private void drawBlock(Graphics2D g2, int x, int y, Color base) {
+        if (tier == RenderQuality.Tier.FLAT) {
+            // Bloco chapado: sem gradiente, borda ou reflexo
+            g2.setColor(base);
+            g2.fillRect(x + 1, y + 1, cellSize - 2, cellSize - 2);
+            return;
+        }
+
         // Efeito de brilho
-        effects.drawBlockGlow(g2, x, y, cellSize, base);
+        if (tier == RenderQuality.Tier.FULL) {
+            effects.drawBlockGlow(g2, x, y, cellSize, base);
+        }
         
         // Desenho do bloco com gradiente metálico
         Color highlight = new Color(
@@ -715,23 +1059,54 @@ class GamePanel extends JPanel {
    DATABASE MANAGER
    ------------------------- */
 class DatabaseManager {
-    private static final String DB_URL = "jdbc:sqlite:tetris.db";
-    
-    // Carrega o driver SQLite na inicialização da classe
-    static {
+    // Arquivo do banco: tetris.db, ou -Dtetris.db=arquivo; useFile troca antes da inicialização
+    private static volatile String dbFile = System.getProperty("tetris.db", "tetris.db");
+
+    // Driver e schema são preparados numa thread de fundo (ver initAsync),
+    // para não segurar o EDT nem o primeiro quadro do jogo.
+    private static final ExecutorService EXECUTOR =
+        Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "tetris-db");
+            t.setDaemon(true);
+            return t;
+        });
+    private static volatile CompletableFuture<Void> ready;
+    private static volatile CompletableFuture<java.util.List<ScoreEntry>> prefetched;
+    private static volatile boolean available; // driver carregado e schema criado
+
+    // Highscore carregado do banco
+    static final class ScoreEntry {
+        final String name;
+        final int score;
+        ScoreEntry(String n, int s) { name = n; score = s; }
+    }
+
+    /** Começa a carregar o driver e criar as tabelas em segundo plano (idempotente). */
+    static CompletableFuture<Void> initAsync() {
+        CompletableFuture<Void> f = ready;
+        if (f == null) {
+            synchronized (DatabaseManager.class) {
+                if (ready == null) {
+                    ready = CompletableFuture.runAsync(DatabaseManager::initSchema, EXECUTOR);
+                }
+                f = ready;
+            }
+        }
+        return f;
+    }
+
+    private static void initSchema() {
         try {
             // Registra o driver SQLite explicitamente
             Class.forName("org.sqlite.JDBC");
         } catch (ClassNotFoundException e) {
             System.err.println("Erro ao carregar o driver SQLite: " + e.getMessage());
             e.printStackTrace();
+            return; // sem banco: ranking vazio, sem um erro por consulta
         }
-    }
-    
-    static {
         // Inicializa o banco de dados
-        try (Connection conn = getConnection()) {
-            Statement stmt = conn.createStatement();
+        try (Connection conn = DriverManager.getConnection(url());
+             Statement stmt = conn.createStatement()) {
             // Cria a tabela de highscores se não existir
             stmt.execute("""
                 CREATE TABLE IF NOT EXISTS highscores (
@@ -741,13 +1116,77 @@ class DatabaseManager {
                     date_achieved TIMESTAMP DEFAULT CURRENT_TIMESTAMP
                 )
             """);
+            // Top 5 sem varrer a tabela (o banco central de rankings pode ter milhões de linhas)
+            stmt.execute("CREATE INDEX IF NOT EXISTS highscores_score ON highscores(score DESC)");
+            // Estatísticas detalhadas por partida e tabelas de resumo
+            StatsStore.createTables(stmt);
+            available = true;
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
-    
+
+    /** Já dispara a consulta dos highscores enquanto a janela ainda está abrindo. */
+    static void prefetchTopScores() {
+        prefetched = topScoresAsync();
+    }
+
+    /** Top 5 em segundo plano; a primeira chamada reaproveita o prefetch, se houver. */
+    static CompletableFuture<java.util.List<ScoreEntry>> topScoresAsync() {
+        CompletableFuture<java.util.List<ScoreEntry>> f = prefetched;
+        if (f != null) {
+            prefetched = null;
+            return f;
+        }
+        return initAsync().thenApplyAsync(v -> queryTopScores(), EXECUTOR);
+    }
+
+    private static java.util.List<ScoreEntry> queryTopScores() {
+        java.util.List<ScoreEntry> result = new java.util.ArrayList<>();
+        if (!available) return result;
+        try (Connection conn = getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("""
+                SELECT player_name, score 
+                FROM highscores 
+                ORDER BY score DESC 
+                LIMIT 5
+            """)) {
+            while (rs.next()) {
+                result.add(new ScoreEntry(rs.getString("player_name"), rs.getInt("score")));
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return result;
+    }
+
+    /** Se o banco pode ser usado (espera a inicialização). */
+    static boolean isAvailable() {
+        initAsync().join();
+        return available;
+    }
+
+    /** Usa outro arquivo de banco (ex.: um descartável no --soak); só antes da primeira conexão. */
+    static void useFile(java.nio.file.Path file) {
+        synchronized (DatabaseManager.class) {
+            if (ready != null) throw new IllegalStateException("Banco já inicializado: " + dbFile);
+            dbFile = file.toString();
+        }
+    }
+
+    static java.nio.file.Path file() {
+        return java.nio.file.Path.of(dbFile);
+    }
+
+    private static String url() {
+        return "jdbc:sqlite:" + dbFile;
+    }
+
+    // Espera a inicialização em segundo plano terminar antes de abrir a conexão
     public static Connection getConnection() throws Exception {
-        return DriverManager.getConnection(DB_URL);
+        initAsync().join();
+        return DriverManager.getConnection(url());
     }
 }
 
@@ -891,15 +1330,27 @@ enum Tetromino {
 
     private final String[] rotations; // cada string length 16 (4x4)
     private final Color color;
+    private final Point[][] blocks; // getBlocks pré-calculado por rotação
 
     Tetromino(String[] rotations, Color color) {
         this.rotations = rotations;
         this.color = color;
+        this.blocks = new Point[rotations.length][];
+        for (int i = 0; i < rotations.length; i++) {
+            this.blocks[i] = getBlocks(i);
+        }
     }
 
-    public static Tetromino random(Random r) {
-        Tetromino[] vals = values();
-        return vals[r.nextInt(vals.length)];
+    private static final Tetromino[] VALUES = values();
+    static final int COUNT = VALUES.length;
+
+    public static Tetromino random(RandomGenerator r) {
+        return VALUES[r.nextInt(COUNT)];
+    }
+
+    // Evita o clone de values() nos caminhos quentes
+    static Tetromino byOrdinal(int ordinal) {
+        return VALUES[ordinal];
     }
 
     public int rotationCount() {
@@ -910,6 +1361,11 @@ enum Tetromino {
         return color;
     }
 
+    // Versão compartilhada de getBlocks para os caminhos quentes: não modificar os pontos
+    Point[] blocks(int rotIndex) {
+        return blocks[rotIndex % blocks.length];
+    }
+
     public Point[] getBlocks(int rotIndex) {
         String s = rotations[rotIndex % rotations.length];
         java.util.List<Point> pts = new java.util.ArrayList<>();
@@ -0,0 +1,272 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Treina os pesos do {@link Bot} com um algoritmo genético e auto-jogo.
+ *
+ * A cada geração todos os candidatos jogam as mesmas partidas (sementes
+ * derivadas da geração), sem gravidade e limitadas a {@code pieces} peças;
+ * o fitness é a média de linhas limpas. Cada partida é uma tarefa num
+ * ForkJoinPool (work-stealing), então partidas longas e curtas se
+ * equilibram entre os núcleos.
+ *
+ * Próxima geração: os ELITE melhores passam direto; o resto nasce de
+ * cruzamento por média ponderada entre dois vencedores de torneio, com
+ * mutação gaussiana. Os vetores são normalizados (só a direção importa).
+ *
+ * Depois de cada geração grava o checkpoint (população, geração e estado do
+ * sorteio) e o melhor vetor em arquivo de pesos, lido pelo modo --ai.
+ *
+ * Uso: java Tetris --train [--population N] [--games N] [--pieces N]
+ *        [--generations N] [--threads N] [--seed N] [--randomizer tipo]
+ *        [--checkpoint arquivo] [--out arquivo] [--resume]
+ */
+public final class Trainer {
+    static final int ELITE = 4;
+    static final int TOURNAMENT = 4;
+    static final double MUTATION_RATE = 0.3;
+    static final double MUTATION_SIGMA = 0.2;
+
+    private final int populationSize;
+    private final int gamesPerCandidate;
+    private final int maxPieces;
+    private final long seed;
+    private final PieceGenerator.Kind kind;
+    private final ForkJoinPool pool;
+
+    private SplitMix64 rng;
+    private int generation;
+    private double[][] population;
+
+    Trainer(int populationSize, int gamesPerCandidate, int maxPieces, long seed,
+            PieceGenerator.Kind kind, int threads) {
+        this.populationSize = populationSize;
+        this.gamesPerCandidate = gamesPerCandidate;
+        this.maxPieces = maxPieces;
+        this.seed = seed;
+        this.kind = kind;
+        this.pool = new ForkJoinPool(threads);
+        this.rng = new SplitMix64(seed);
+        this.population = new double[populationSize][];
+        // Primeira geração: os pesos padrão e variações aleatórias
+        population[0] = normalize(Bot.DEFAULT_WEIGHTS.clone());
+        for (int i = 1; i < populationSize; i++) {
+            double[] w = new double[Bot.FEATURES.length];
+            for (int f = 0; f < w.length; f++) w[f] = rng.nextDouble() * 2 - 1;
+            population[i] = normalize(w);
+        }
+    }
+
+    private static double[] normalize(double[] w) {
+        double norm = 0;
+        for (double v : w) norm += v * v;
+        norm = Math.sqrt(norm);
+        if (norm > 0) {
+            for (int i = 0; i < w.length; i++) w[i] /= norm;
+        }
+        return w;
+    }
+
+    /* -------------------------
+       AVALIAÇÃO EM PARALELO
+       ------------------------- */
+
+    // Resultado de uma partida: linhas e peças (para as taxas do relatório)
+    private long playOne(double[] weights, long gameSeed) {
+        GameEngine engine = new GameEngine();
+        engine.reset(PieceGenerator.create(kind, gameSeed));
+        int lines = new Bot(weights).playGame(engine, maxPieces);
+        return (long) lines << 32 | engine.getPiecesPlaced();
+    }
+
+    /** Fitness de cada candidato: média de linhas nas partidas desta geração. */
+    private double[] evaluate(Report report) {
+        List<Callable<Long>> tasks = new ArrayList<>(populationSize * gamesPerCandidate);
+        for (int i = 0; i < populationSize; i++) {
+            double[] w = population[i];
+            for (int g = 0; g < gamesPerCandidate; g++) {
+                long gameSeed = PieceGenerator.seedFor(seed, (long) generation * gamesPerCandidate + g);
+                tasks.add(() -> playOne(w, gameSeed));
+            }
+        }
+        List<Future<Long>> results = pool.invokeAll(tasks);
+        double[] fitness = new double[populationSize];
+        for (int t = 0; t < results.size(); t++) {
+            long r;
+            try {
+                r = results.get(t).get();
+            } catch (InterruptedException | ExecutionException e) {
+                throw new IllegalStateException("Falha numa partida de treino", e);
+            }
+            fitness[t / gamesPerCandidate] += (r >>> 32);
+            report.pieces += (int) r;
+        }
+        for (int i = 0; i < populationSize; i++) fitness[i] /= gamesPerCandidate;
+        report.games = tasks.size();
+        return fitness;
+    }
+
+    /* -------------------------
+       SELEÇÃO, CRUZAMENTO E MUTAÇÃO
+       ------------------------- */
+
+    private int tournament(double[] fitness) {
+        int best = rng.nextInt(populationSize);
+        for (int i = 1; i < TOURNAMENT; i++) {
+            int c = rng.nextInt(populationSize);
+            if (fitness[c] > fitness[best]) best = c;
+        }
+        return best;
+    }
+
+    private void nextGeneration(double[] fitness, Integer[] order) {
+        double[][] next = new double[populationSize][];
+        for (int i = 0; i < ELITE && i < populationSize; i++) {
+            next[i] = population[order[i]].clone();
+        }
+        for (int i = ELITE; i < populationSize; i++) {
+            int a = tournament(fitness);
+            int b = tournament(fitness);
+            double fa = Math.max(fitness[a], 1e-9), fb = Math.max(fitness[b], 1e-9);
+            double[] child = new double[Bot.FEATURES.length];
+            for (int f = 0; f < child.length; f++) {
+                child[f] = (population[a][f] * fa + population[b][f] * fb) / (fa + fb);
+                if (rng.nextDouble() < MUTATION_RATE) child[f] += rng.nextGaussian() * MUTATION_SIGMA;
+            }
+            next[i] = normalize(child);
+        }
+        population = next;
+        generation++;
+    }
+
+    static final class Report {
+        int games;
+        long pieces;
+    }
+
+    /** Roda {@code generations} gerações, gravando checkpoint e pesos após cada uma. */
+    void run(int generations, Path checkpoint, Path out) throws IOException {
+        System.out.printf("geração  partidas  partidas/s  peças/s  melhor  média  pesos (%s)%n", String.join(", ", Bot.FEATURES));
+        for (int g = 0; g < generations; g++) {
+            long start = System.nanoTime();
+            Report report = new Report();
+            double[] fitness = evaluate(report);
+            double secs = (System.nanoTime() - start) / 1e9;
+
+            Integer[] order = new Integer[populationSize];
+            for (int i = 0; i < populationSize; i++) order[i] = i;
+            Arrays.sort(order, (x, y) -> Double.compare(fitness[y], fitness[x]));
+            double mean = Arrays.stream(fitness).average().orElse(0);
+            double[] best = population[order[0]];
+            System.out.printf(Locale.ROOT, "%7d %9d %11.1f %8.0f %7.1f %6.1f  %s%n",
+                generation, report.games, report.games / secs, report.pieces / secs,
+                fitness[order[0]], mean, format(best));
+
+            Bot.writeWeights(out, best, String.format(Locale.ROOT,
+                "geração %d, média de %.1f linhas em %d partidas de até %d peças",
+                generation, fitness[order[0]], gamesPerCandidate, maxPieces));
+            nextGeneration(fitness, order);
+            saveCheckpoint(checkpoint);
+        }
+        pool.shutdown();
+    }
+
+    private static String format(double[] w) {
+        StringBuilder sb = new StringBuilder();
+        for (double v : w) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(String.format(Locale.ROOT, "%.3f", v));
+        }
+        return sb.toString();
+    }
+
+    /* -------------------------
+       CHECKPOINT (texto: "generation N", "rng semente gama", um vetor por linha)
+       ------------------------- */
+
+    void saveCheckpoint(Path file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("generation " + generation);
+        lines.add("rng " + rng.getSeed() + " " + rng.getGamma());
+        for (double[] w : population) {
+            StringBuilder sb = new StringBuilder();
+            for (double v : w) {
+                if (sb.length() > 0) sb.append(' ');
+                sb.append(v);
+            }
+            lines.add(sb.toString());
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(tmp, lines);
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    void loadCheckpoint(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file);
+        try {
+            generation = Integer.parseInt(lines.get(0).split(" ")[1]);
+            String[] r = lines.get(1).split(" ");
+            rng = new SplitMix64(Long.parseLong(r[1]), Long.parseLong(r[2]));
+            List<double[]> pop = new ArrayList<>();
+            for (String line : lines.subList(2, lines.size())) {
+                if (line.isBlank()) continue;
+                double[] w = Arrays.stream(line.trim().split(" ")).mapToDouble(Double::parseDouble).toArray();
+                if (w.length != Bot.FEATURES.length) throw new IOException("Vetor com tamanho errado: " + line);
+                pop.add(w);
+            }
+            // Ajusta ao tamanho pedido agora: corta ou completa com mutações do primeiro
+            for (int i = 0; i < populationSize; i++) {
+                if (i < pop.size()) {
+                    population[i] = pop.get(i);
+                } else {
+                    double[] w = pop.get(0).clone();
+                    for (int f = 0; f < w.length; f++) w[f] += rng.nextGaussian() * MUTATION_SIGMA;
+                    population[i] = normalize(w);
+                }
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Checkpoint inválido: " + file, e);
+        }
+        System.out.println("Retomando da geração " + generation + " (" + file + ")");
+    }
+
+    public static void main(String[] args) throws Exception {
+        int population = 40, games = 8, pieces = 500, generations = 20;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long seed = 1;
+        PieceGenerator.Kind kind = PieceGenerator.Kind.BAG;
+        Path checkpoint = Path.of("trainer.checkpoint");
+        Path out = Path.of("bot.weights");
+        boolean resume = false;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--population" -> population = Integer.parseInt(args[++i]);
+                case "--games" -> games = Integer.parseInt(args[++i]);
+                case "--pieces" -> pieces = Integer.parseInt(args[++i]);
+                case "--generations" -> generations = Integer.parseInt(args[++i]);
+                case "--threads" -> threads = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--randomizer" -> kind = PieceGenerator.Kind.parse(args[++i]);
+                case "--checkpoint" -> checkpoint = Path.of(args[++i]);
+                case "--out" -> out = Path.of(args[++i]);
+                case "--resume" -> resume = true;
+                default -> System.err.println("Argumento ignorado: " + args[i]);
+            }
+        }
+        if (population <= ELITE) throw new IllegalArgumentException("--population precisa ser maior que " + ELITE);
+
+        Trainer trainer = new Trainer(population, games, pieces, seed, kind, threads);
+        if (resume && Files.isRegularFile(checkpoint)) trainer.loadCheckpoint(checkpoint);
+        trainer.run(generations, checkpoint, out);
+    }
+}
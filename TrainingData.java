@@ -0,0 +1,477 @@
+import java.awt.Color;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Exportação de decisões de jogo para treinar modelos de posicionamento
+ * fora daqui: cada peça travada vira um registro de tamanho fixo com o
+ * tabuleiro antes da jogada, a peça, a próxima, onde ela parou e quantas
+ * linhas limpou.
+ *
+ * O arquivo é colunar, em blocos de até {@code chunkRecords} registros, tudo
+ * little-endian para abrir direto com memmap (numpy, Arrow etc.):
+ * <pre>
+ * cabeçalho    u32 MAGIC, u16 VERSION, u16 flags (1 = deflate), u32 registros por bloco, u32 bytes por registro (46)
+ * bloco        u32 n, u32 bytes crus (n * 46), u32 bytes gravados, u32 crc32 dos bytes gravados,
+ *              seguido das colunas, uma depois da outra:
+ *              20 x u16[n]  linhas do tabuleiro (bit c = coluna c ocupada), linha 0 no topo
+ *              i8[n] peça, i8[n] próxima (ordinais de Tetromino, -1 = nenhuma)
+ *              i8[n] rotação, i8[n] coluna, i8[n] linha onde a peça travou, i8[n] linhas limpas
+ * </pre>
+ * Com deflate, as colunas de cada bloco são comprimidas juntas; sem ele, os
+ * bytes gravados são as próprias colunas e o arquivo pode ser lido direto
+ * do mapeamento em memória.
+ *
+ * O {@link Writer} escreve em ByteBuffers diretos, uma coluna por buffer,
+ * e o {@link Reader} lê por posição absoluta no mapeamento (ou no buffer
+ * descomprimido do bloco): gravar e varrer não alocam nada por registro.
+ */
+public final class TrainingData {
+    static final int MAGIC = 0x4E525454; // "TTRN" em little-endian
+    static final short VERSION = 1;
+    static final int FLAG_DEFLATE = 1;
+    static final int HEADER_BYTES = 16;
+    static final int CHUNK_HEADER_BYTES = 16;
+    static final int DEFAULT_CHUNK_RECORDS = 1 << 16;
+
+    private static final int ROWS = GameEngine.ROWS;
+    private static final int COLS = GameEngine.COLS;
+    // Colunas de um byte, depois das linhas do tabuleiro
+    static final int PIECE = 0, NEXT = 1, ROTATION = 2, COLUMN = 3, ROW = 4, CLEARED = 5;
+    private static final int BYTE_COLUMNS = 6;
+    static final int RECORD_BYTES = ROWS * 2 + BYTE_COLUMNS;
+
+    private TrainingData() {
+    }
+
+    /* -------------------------
+       ESCRITA: ligada ao GameEngine (lockPiece) ou usada direto
+       ------------------------- */
+    static final class Writer implements Closeable {
+        private final FileChannel channel;
+        private final int chunkRecords;
+        private final ByteBuffer[] columns = new ByteBuffer[ROWS + BYTE_COLUMNS];
+        private final ByteBuffer chunkHeader = ByteBuffer.allocateDirect(CHUNK_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        private final ByteBuffer[] rawOut;    // cabeçalho + colunas, para uma escrita só
+        private final ByteBuffer[] packedOut; // cabeçalho + bloco comprimido
+        private final Deflater deflater;      // null = sem compressão
+        private final ByteBuffer packed;
+        private final CRC32 crc = new CRC32();
+        private final int[] board = new int[ROWS]; // tabuleiro capturado antes da peça travar
+        private int count;
+        private long records;
+
+        Writer(Path file, boolean compress) throws IOException {
+            this(file, compress, DEFAULT_CHUNK_RECORDS);
+        }
+
+        Writer(Path file, boolean compress, int chunkRecords) throws IOException {
+            this.chunkRecords = chunkRecords;
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = ByteBuffer.allocateDirect(chunkRecords * (i < ROWS ? 2 : 1)).order(ByteOrder.LITTLE_ENDIAN);
+            }
+            rawOut = new ByteBuffer[columns.length + 1];
+            rawOut[0] = chunkHeader;
+            System.arraycopy(columns, 0, rawOut, 1, columns.length);
+            if (compress) {
+                deflater = new Deflater(Deflater.BEST_SPEED);
+                int raw = chunkRecords * RECORD_BYTES;
+                packed = ByteBuffer.allocateDirect(raw + (raw >> 8) + 64); // pior caso do deflate com folga
+                packedOut = new ByteBuffer[] {chunkHeader, packed};
+            } else {
+                deflater = null;
+                packed = null;
+                packedOut = null;
+            }
+
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putShort(VERSION).putShort((short) (compress ? FLAG_DEFLATE : 0));
+            header.putInt(chunkRecords).putInt(RECORD_BYTES).flip();
+            while (header.hasRemaining()) channel.write(header);
+        }
+
+        /** Guarda o tabuleiro como está agora; chamado antes da peça ser fixada. */
+        void capture(Color[][] wall) {
+            for (int r = 0; r < ROWS; r++) {
+                int mask = 0;
+                for (int c = 0; c < COLS; c++) {
+                    if (wall[r][c] != null) mask |= 1 << c;
+                }
+                board[r] = mask;
+            }
+        }
+
+        /** Acrescenta a decisão sobre o último tabuleiro capturado. */
+        void record(Tetromino piece, Tetromino next, int row, int col, int rotation, int cleared) {
+            for (int r = 0; r < ROWS; r++) columns[r].putShort((short) board[r]);
+            columns[ROWS + PIECE].put((byte) piece.ordinal());
+            columns[ROWS + NEXT].put((byte) (next != null ? next.ordinal() : -1));
+            columns[ROWS + ROTATION].put((byte) rotation);
+            columns[ROWS + COLUMN].put((byte) col);
+            columns[ROWS + ROW].put((byte) row);
+            columns[ROWS + CLEARED].put((byte) cleared);
+            records++;
+            if (++count == chunkRecords) {
+                try {
+                    flushChunk();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        long records() {
+            return records;
+        }
+
+        private void flushChunk() throws IOException {
+            if (count == 0) return;
+            for (ByteBuffer c : columns) c.flip();
+            crc.reset();
+            ByteBuffer[] out;
+            int stored;
+            if (deflater != null) {
+                deflater.reset();
+                packed.clear();
+                for (ByteBuffer c : columns) {
+                    deflater.setInput(c);
+                    while (!deflater.needsInput()) deflate();
+                }
+                deflater.finish();
+                while (!deflater.finished()) deflate();
+                packed.flip();
+                crc.update(packed);
+                packed.rewind();
+                stored = packed.remaining();
+                out = packedOut;
+            } else {
+                stored = 0;
+                for (ByteBuffer c : columns) {
+                    stored += c.remaining();
+                    crc.update(c);
+                    c.rewind();
+                }
+                out = rawOut;
+            }
+            chunkHeader.clear();
+            chunkHeader.putInt(count).putInt(count * RECORD_BYTES).putInt(stored).putInt((int) crc.getValue()).flip();
+            ByteBuffer last = out[out.length - 1];
+            while (last.hasRemaining()) channel.write(out);
+            for (ByteBuffer c : columns) c.clear();
+            count = 0;
+        }
+
+        private void deflate() {
+            if (!packed.hasRemaining()) throw new IllegalStateException("Bloco comprimido maior que o esperado");
+            deflater.deflate(packed);
+        }
+
+        /** Grava o bloco incompleto e fecha o arquivo. */
+        @Override
+        public void close() throws IOException {
+            try {
+                flushChunk();
+            } finally {
+                channel.close();
+                if (deflater != null) deflater.end();
+            }
+        }
+    }
+
+    /* -------------------------
+       LEITURA: arquivo mapeado em memória, um bloco por vez
+       ------------------------- */
+    static final class Reader implements Closeable {
+        private static final long MAX_SEGMENT = Integer.MAX_VALUE;
+
+        private final FileChannel channel;
+        private final boolean compressed;
+        private final int chunkRecords;
+        private final long fileBytes;
+        private long records;
+        // Por bloco: segmento, posição dos dados no segmento, registros, bytes crus, gravados e crc
+        private int chunks;
+        private int[] chunkSegment = new int[16], chunkOffset = new int[16], chunkCount = new int[16];
+        private int[] chunkRaw = new int[16], chunkStored = new int[16], chunkCrc = new int[16];
+        private final MappedByteBuffer[] segments;
+        private final ByteBuffer[] inputs; // visões dos segmentos para o Inflater
+        private final Inflater inflater;
+        private final ByteBuffer inflated;
+        private final CRC32 crc = new CRC32();
+        // Bloco carregado
+        private ByteBuffer data;
+        private int base, n;
+
+        Reader(Path file) throws IOException {
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            fileBytes = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(header, 0);
+            if (header.getInt() != MAGIC || header.getShort() != VERSION) {
+                channel.close();
+                throw new IOException("Não é um arquivo de treino: " + file);
+            }
+            compressed = (header.getShort() & FLAG_DEFLATE) != 0;
+            chunkRecords = header.getInt();
+            if (header.getInt() != RECORD_BYTES) {
+                channel.close();
+                throw new IOException("Tamanho de registro inesperado em " + file);
+            }
+
+            // Índice dos blocos e segmentos de até 2GB, cada um terminando num limite de bloco
+            long[] segmentStart = new long[4];
+            long[] segmentEnd = new long[4];
+            int segmentCount = 0;
+            ByteBuffer chunkHeader = ByteBuffer.allocate(CHUNK_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (long pos = HEADER_BYTES; pos + CHUNK_HEADER_BYTES <= fileBytes; ) {
+                readFully(chunkHeader, pos);
+                int count = chunkHeader.getInt(), raw = chunkHeader.getInt(), stored = chunkHeader.getInt();
+                int checksum = chunkHeader.getInt();
+                long end = pos + CHUNK_HEADER_BYTES + stored;
+                if (end > fileBytes) break; // último bloco incompleto (gravação interrompida)
+                if (segmentCount == 0 || end - segmentStart[segmentCount - 1] > MAX_SEGMENT) {
+                    if (segmentCount == segmentStart.length) {
+                        segmentStart = Arrays.copyOf(segmentStart, segmentCount * 2);
+                        segmentEnd = Arrays.copyOf(segmentEnd, segmentCount * 2);
+                    }
+                    segmentStart[segmentCount++] = pos;
+                }
+                segmentEnd[segmentCount - 1] = end;
+                if (chunks == chunkCount.length) growIndex();
+                chunkSegment[chunks] = segmentCount - 1;
+                chunkOffset[chunks] = (int) (pos + CHUNK_HEADER_BYTES - segmentStart[segmentCount - 1]);
+                chunkCount[chunks] = count;
+                chunkRaw[chunks] = raw;
+                chunkStored[chunks] = stored;
+                chunkCrc[chunks] = checksum;
+                chunks++;
+                records += count;
+                pos = end;
+            }
+            segments = new MappedByteBuffer[segmentCount];
+            inputs = new ByteBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, segmentStart[s], segmentEnd[s] - segmentStart[s]);
+                segments[s].order(ByteOrder.LITTLE_ENDIAN);
+                inputs[s] = segments[s].duplicate();
+            }
+            inflater = compressed ? new Inflater() : null;
+            inflated = compressed ? ByteBuffer.allocateDirect(chunkRecords * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN) : null;
+        }
+
+        private void readFully(ByteBuffer buf, long pos) throws IOException {
+            buf.clear();
+            while (buf.hasRemaining()) {
+                if (channel.read(buf, pos + buf.position()) < 0) throw new IOException("Arquivo de treino truncado");
+            }
+            buf.flip();
+        }
+
+        private void growIndex() {
+            int size = chunkCount.length * 2;
+            chunkSegment = Arrays.copyOf(chunkSegment, size);
+            chunkOffset = Arrays.copyOf(chunkOffset, size);
+            chunkCount = Arrays.copyOf(chunkCount, size);
+            chunkRaw = Arrays.copyOf(chunkRaw, size);
+            chunkStored = Arrays.copyOf(chunkStored, size);
+            chunkCrc = Arrays.copyOf(chunkCrc, size);
+        }
+
+        int chunkCount() {
+            return chunks;
+        }
+
+        long recordCount() {
+            return records;
+        }
+
+        boolean isCompressed() {
+            return compressed;
+        }
+
+        long fileBytes() {
+            return fileBytes;
+        }
+
+        /**
+         * Torna {@code chunk} o bloco atual e retorna quantos registros tem.
+         * Sem compressão só aponta para o mapeamento; com deflate, descomprime
+         * no buffer reutilizado e confere o crc.
+         */
+        int load(int chunk) throws IOException {
+            int segment = chunkSegment[chunk];
+            n = chunkCount[chunk];
+            if (!compressed) {
+                data = segments[segment];
+                base = chunkOffset[chunk];
+                return n;
+            }
+            ByteBuffer in = inputs[segment];
+            in.clear();
+            in.position(chunkOffset[chunk]).limit(chunkOffset[chunk] + chunkStored[chunk]);
+            crc.reset();
+            crc.update(in);
+            if ((int) crc.getValue() != chunkCrc[chunk]) throw new IOException("crc inválido no bloco " + chunk);
+            in.position(chunkOffset[chunk]);
+
+            inflater.reset();
+            inflater.setInput(in);
+            inflated.clear();
+            try {
+                while (!inflater.finished()) {
+                    if (inflater.inflate(inflated) == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IOException("Bloco " + chunk + " truncado");
+                    }
+                }
+            } catch (DataFormatException e) {
+                throw new IOException("Bloco " + chunk + " corrompido", e);
+            }
+            if (inflated.position() != chunkRaw[chunk]) throw new IOException("Tamanho errado no bloco " + chunk);
+            data = inflated;
+            base = 0;
+            return n;
+        }
+
+        /** Linha {@code r} do tabuleiro do registro {@code i} do bloco atual (bit c = coluna c). */
+        int boardRow(int i, int r) {
+            return data.getShort(base + (r * n + i) * 2) & 0xFFFF;
+        }
+
+        /** Coluna de um byte ({@link #PIECE}, {@link #NEXT}, ...) do registro {@code i}. */
+        int value(int column, int i) {
+            return data.get(base + ROWS * 2 * n + column * n + i);
+        }
+
+        int piece(int i) {
+            return value(PIECE, i);
+        }
+
+        int next(int i) {
+            return value(NEXT, i);
+        }
+
+        int rotation(int i) {
+            return value(ROTATION, i);
+        }
+
+        int column(int i) {
+            return value(COLUMN, i);
+        }
+
+        int row(int i) {
+            return value(ROW, i);
+        }
+
+        int cleared(int i) {
+            return value(CLEARED, i);
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+            if (inflater != null) inflater.end();
+        }
+    }
+
+    /* -------------------------
+       EXPORTAÇÃO: java Tetris --export-training arquivo [--games N] [--pieces N] [--seed N] [--compress] [--weights arquivo]
+       ------------------------- */
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Uso: --export-training arquivo [--games N] [--pieces N] [--seed N] [--compress] [--weights arquivo]");
+            return;
+        }
+        Path out = Path.of(args[0]);
+        int games = 100;
+        int maxPieces = 1000;
+        long seed = 1;
+        boolean compress = false;
+        Path weightsFile = Path.of("bot.weights");
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--games" -> games = Integer.parseInt(args[++i]);
+                case "--pieces" -> maxPieces = Integer.parseInt(args[++i]);
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                case "--compress" -> compress = true;
+                case "--weights" -> weightsFile = Path.of(args[++i]);
+                default -> System.err.println("Argumento ignorado: " + args[i]);
+            }
+        }
+        double[] weights = Files.isRegularFile(weightsFile) ? Bot.readWeights(weightsFile) : Bot.DEFAULT_WEIGHTS;
+
+        long start = System.nanoTime();
+        long records;
+        try (Writer writer = new Writer(out, compress)) {
+            Bot bot = new Bot(weights);
+            GameEngine engine = new GameEngine();
+            engine.setTrainingLog(writer);
+            for (int g = 0; g < games; g++) {
+                engine.reset(PieceGenerator.create(PieceGenerator.Kind.BAG, PieceGenerator.seedFor(seed, g)));
+                bot.playGame(engine, maxPieces);
+            }
+            records = writer.records();
+        }
+        double secs = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "%d registros de %d partidas em %.2fs (%.0f registros/s, %.1f MB) -> %s%n",
+            records, games, secs, records / secs, Files.size(out) / 1e6, out);
+    }
+
+    /* -------------------------
+       VARREDURA: java Tetris --training-scan arquivo
+       ------------------------- */
+
+    // Varre todas as colunas e imprime um JSON com vazão, alocação e distribuições
+    static void scan(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Uso: --training-scan arquivo");
+            return;
+        }
+        long[] pieces = new long[Tetromino.COUNT];
+        long[] cleared = new long[5];
+        long cells = 0;
+        long checksum = 0;
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+        try (Reader reader = new Reader(Path.of(args[0]))) {
+            long allocBefore = threads.getThreadAllocatedBytes(tid);
+            long start = System.nanoTime();
+            for (int k = 0; k < reader.chunkCount(); k++) {
+                int n = reader.load(k);
+                for (int i = 0; i < n; i++) {
+                    for (int r = 0; r < ROWS; r++) cells += Integer.bitCount(reader.boardRow(i, r));
+                    pieces[reader.piece(i)]++;
+                    cleared[Math.min(4, reader.cleared(i))]++;
+                    checksum = checksum * 31 + reader.next(i) * 1000 + reader.rotation(i) * 100 + reader.column(i) * 10 + reader.row(i);
+                }
+            }
+            double secs = (System.nanoTime() - start) / 1e9;
+            long alloc = threads.getThreadAllocatedBytes(tid) - allocBefore;
+            long records = reader.recordCount();
+            System.out.printf(Locale.ROOT,
+                "{\"records\": %d, \"chunks\": %d, \"compressed\": %b, \"fileMb\": %.1f, \"seconds\": %.3f, "
+                    + "\"mbPerSec\": %.0f, \"recordsPerSec\": %.0f, \"allocBytes\": %d, \"avgCells\": %.1f, "
+                    + "\"pieces\": %s, \"cleared\": %s, \"checksum\": %d}%n",
+                records, reader.chunkCount(), reader.isCompressed(), reader.fileBytes() / 1e6, secs,
+                records * RECORD_BYTES / 1e6 / secs, records / secs, alloc,
+                records > 0 ? (double) cells / records : 0, Arrays.toString(pieces), Arrays.toString(cleared), checksum);
+        }
+    }
+}
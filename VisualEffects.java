@@ -4,9 +4,14 @@ import java.util.*;
 import java.util.List;
 
 public class VisualEffects {
+    // Limites: linhas limpas mais rápido do que as partículas somem não acumulam sem fim
+    static final int MAX_PARTICLES = 1000;
+    static final int MAX_POPUPS = 32;
+
     private List<Particle> particles = new ArrayList<>();
     private List<ScorePopup> scorePopups = new ArrayList<>();
-    private float backgroundHue = 0;
+    private final Random rand = new Random();
+    private long frames; // quadros desde o início (o fundo gira 0.1 grau por quadro)
     
     // Partícula para efeitos visuais
     private static class Particle {
@@ -16,16 +21,16 @@ public class VisualEffects {
         Color color;
         float size;
         
-        Particle(float x, float y, Color color) {
+        Particle(float x, float y, Color color, Random rand) {
             this.x = x;
             this.y = y;
             this.color = color;
-            double angle = Math.random() * Math.PI * 2;
-            float speed = (float) (Math.random() * 5 + 2);
+            double angle = rand.nextDouble() * Math.PI * 2;
+            float speed = (float) (rand.nextDouble() * 5 + 2);
             this.vx = (float) Math.cos(angle) * speed;
             this.vy = (float) Math.sin(angle) * speed;
             this.alpha = 1.0f;
-            this.size = (float) (Math.random() * 6 + 4);
+            this.size = (float) (rand.nextDouble() * 6 + 4);
         }
         
         void update() {
@@ -45,6 +50,13 @@ public class VisualEffects {
             g2.setColor(color);
             g2.fill(new Ellipse2D.Float(x - size/2, y - size/2, size, size));
         }
+        
+        // Versão barata: quadrado opaco, sem composite nem forma alocada
+        void drawFlat(Graphics2D g2) {
+            g2.setColor(color);
+            int s = Math.max(1, (int) size);
+            g2.fillRect((int) (x - size/2), (int) (y - size/2), s, s);
+        }
     }
     
     // Popup de pontuação
@@ -82,20 +94,23 @@ public class VisualEffects {
         }
     }
     
-    // Adiciona partículas para uma linha eliminada
-    public void addLineEffect(int y, int width, Color[] colors) {
-        Random rand = new Random();
+    // Adiciona partículas para uma linha eliminada; a mesma semente gera as mesmas partículas
+    public void addLineEffect(int y, int width, Color[] colors, long seed) {
+        rand.setSeed(seed);
         for (int i = 0; i < 50; i++) {
             float x = rand.nextFloat() * width;
             Color color = colors[rand.nextInt(colors.length)];
-            particles.add(new Particle(x, y, color));
+            particles.add(new Particle(x, y, color, rand));
         }
+        // Acima do limite, descarta as mais antigas (as mais apagadas)
+        if (particles.size() > MAX_PARTICLES) particles.subList(0, particles.size() - MAX_PARTICLES).clear();
     }
     
     // Adiciona popup de pontuação
     public void addScorePopup(int x, int y, int score) {
         Color popupColor = new Color(255, 215, 0); // Dourado
         scorePopups.add(new ScorePopup(x, y, score, popupColor));
+        if (scorePopups.size() > MAX_POPUPS) scorePopups.remove(0);
     }
     
     // Atualiza todos os efeitos
@@ -106,17 +121,43 @@ public class VisualEffects {
         scorePopups.removeIf(ScorePopup::isDead);
         scorePopups.forEach(ScorePopup::update);
         
-        backgroundHue = (backgroundHue + 0.1f) % 360f;
+        frames++;
+    }
+    
+    // Sem efeitos, com o fundo no ponto de {@code frame} quadros desde o início
+    public void reset(long frame) {
+        particles.clear();
+        scorePopups.clear();
+        frames = frame;
     }
     
     // Desenha todos os efeitos
     public void draw(Graphics2D g2) {
-        particles.forEach(p -> p.draw(g2));
+        draw(g2, false);
+    }
+    
+    // flat = partículas como quadrados opacos (nível de qualidade mais baixo)
+    public void draw(Graphics2D g2, boolean flat) {
+        if (flat) {
+            particles.forEach(p -> p.drawFlat(g2));
+        } else {
+            particles.forEach(p -> p.draw(g2));
+        }
         scorePopups.forEach(p -> p.draw(g2));
     }
     
+    // Há partículas ou popups ainda visíveis
+    public boolean isActive() {
+        return !particles.isEmpty() || !scorePopups.isEmpty();
+    }
+    
+    public int count() {
+        return particles.size() + scorePopups.size();
+    }
+    
     // Retorna a cor do fundo baseada na animação
     public Color getBackgroundColor() {
+        float backgroundHue = (frames % 3600) * 0.1f;
         return Color.getHSBColor(backgroundHue / 360f, 0.1f, 0.1f);
     }
     
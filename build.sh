@@ -0,0 +1,43 @@
+#!/bin/sh
+# Compila o jogo e, opcionalmente, gera o arquivo AppCDS (tetris.jsa) para acelerar o startup.
+# O passo do CDS é opcional: o jogo roda igual sem ele, só abre mais devagar.
+# Ele abre a janela uma vez (--startup-time desenha o primeiro quadro e sai),
+# então é pulado sem tela disponível ou com --no-cds; se falhar, só avisa.
+# O CDS não aceita diretórios com classes no classpath, por isso as classes
+# também vão para tetris.jar e o arquivo só vale com esse jar.
+set -e
+cd "$(dirname "$0")"
+
+# Separador de classpath: ';' no Windows (Git Bash/MSYS/Cygwin), ':' nos demais
+case "$(uname -s 2>/dev/null)" in
+  MINGW*|MSYS*|CYGWIN*) SEP=";" ;;
+  *) SEP=":" ;;
+esac
+CP=".${SEP}sqlite-jdbc-3.51.0.0.jar"
+JAR_CP="tetris.jar${SEP}sqlite-jdbc-3.51.0.0.jar"
+
+javac -encoding UTF-8 -cp "$CP" *.java
+
+if [ "$1" = "--no-cds" ]; then
+  echo "Compilado (CDS pulado). Rode com: java -cp \"$CP\" Tetris"
+  exit 0
+fi
+case "$(uname -s 2>/dev/null)" in
+  Darwin*|MINGW*|MSYS*|CYGWIN*) ;;
+  *)
+    if [ -z "$DISPLAY" ] && [ -z "$WAYLAND_DISPLAY" ]; then
+      echo "Compilado. Sem tela (DISPLAY vazio): CDS pulado. Rode com: java -cp \"$CP\" Tetris"
+      exit 0
+    fi
+    ;;
+esac
+
+# Execução de treino: grava as classes carregadas até o primeiro quadro
+rm -f tetris.jar tetris.jsa
+jar cf tetris.jar *.class
+if java -XX:ArchiveClassesAtExit=tetris.jsa -cp "$JAR_CP" Tetris --startup-time && [ -f tetris.jsa ]; then
+  echo "Pronto. Rode com: java -XX:SharedArchiveFile=tetris.jsa -cp \"$JAR_CP\" Tetris"
+else
+  rm -f tetris.jsa
+  echo "Aviso: não foi possível gerar tetris.jsa; rode sem CDS: java -cp \"$CP\" Tetris" >&2
+fi